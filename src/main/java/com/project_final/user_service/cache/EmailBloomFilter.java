@@ -0,0 +1,179 @@
+package com.project_final.user_service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom con los emails registrados. En la carga masiva, si responde
+ * "no está" el email es nuevo con seguridad y no entra en la consulta de
+ * existentes; si responde "puede estar" se consulta la base de datos. La
+ * restricción única de users.email sigue siendo la garantía final.
+ * <p>
+ * Los bits no se borran al eliminar o cambiar un email: solo aumentan los
+ * falsos positivos hasta el siguiente arranque, que reconstruye el filtro.
+ * Memoria, inserciones y tasa de falsos positivos se publican en users.email-filter.*.
+ */
+@Component
+public class EmailBloomFilter implements MeterBinder {
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLongArray bits;
+    private volatile boolean ready;
+
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong definitelyAbsent = new AtomicLong();
+    private final AtomicLong maybePresent = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public EmailBloomFilter(@Value("${user.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${user.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Configuración del filtro de emails no válida");
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        // m = -n·ln(p) / ln(2)^2  y  k = m/n·ln(2)
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+        this.bitSize = bits.length() * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    // false solo si el email no se ha registrado nunca; mientras no esté cargado responde siempre true
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+        long hash = hash(email);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                definitelyAbsent.incrementAndGet();
+                return false;
+            }
+        }
+        maybePresent.incrementAndGet();
+        return true;
+    }
+
+    public void put(String email) {
+        if (email == null) {
+            return;
+        }
+        long hash = hash(email);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    // La base de datos desmintió un "puede estar"
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    // Marcar el filtro como completo tras la carga inicial
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("expectedInsertions", expectedInsertions);
+        stats.put("falsePositiveRate", falsePositiveRate);
+        stats.put("bitSize", bitSize);
+        stats.put("memoryBytes", bitSize / 8);
+        stats.put("hashFunctions", hashFunctions);
+        stats.put("insertions", insertions.get());
+        stats.put("expectedCurrentFalsePositiveRate", currentFalsePositiveRate());
+        stats.put("definitelyAbsent", definitelyAbsent.get());
+        stats.put("maybePresent", maybePresent.get());
+        stats.put("falsePositives", falsePositives.get());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.email-filter.memory", this, filter -> filter.bitSize / 8)
+                .description("Memoria ocupada por los bits del filtro")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("users.email-filter.insertions", insertions, AtomicLong::get)
+                .description("Emails añadidos al filtro desde el arranque")
+                .register(registry);
+        Gauge.builder("users.email-filter.expected-false-positive-rate", this, EmailBloomFilter::currentFalsePositiveRate)
+                .description("Tasa de falsos positivos teórica con los emails insertados")
+                .register(registry);
+        Gauge.builder("users.email-filter.observed-false-positive-rate", this, EmailBloomFilter::observedFalsePositiveRate)
+                .description("Falsos positivos sobre los emails nuevos consultados")
+                .register(registry);
+        FunctionCounter.builder("users.email-filter.checks", definitelyAbsent, AtomicLong::get)
+                .description("Consultas al filtro por resultado")
+                .tag("result", "absent")
+                .register(registry);
+        FunctionCounter.builder("users.email-filter.checks", maybePresent, AtomicLong::get)
+                .description("Consultas al filtro por resultado")
+                .tag("result", "maybe-present")
+                .register(registry);
+        FunctionCounter.builder("users.email-filter.false-positives", falsePositives, AtomicLong::get)
+                .description("Emails con \"puede estar\" que la base de datos no tenía")
+                .register(registry);
+    }
+
+    // Falsos positivos / (emails que no estaban) según lo visto hasta ahora
+    private double observedFalsePositiveRate() {
+        long negatives = definitelyAbsent.get() + falsePositives.get();
+        return negatives == 0 ? 0.0 : (double) falsePositives.get() / negatives;
+    }
+
+    // (1 - e^(-k·n/m))^k con los emails insertados hasta ahora
+    private double currentFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions.get() / bitSize), hashFunctions);
+    }
+
+    // FNV-1a de 64 bits sobre el email normalizado (MySQL compara sin distinguir mayúsculas)
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Finalizador de SplitMix64 para repartir bien los bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
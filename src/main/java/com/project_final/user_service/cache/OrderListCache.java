@@ -0,0 +1,183 @@
+package com.project_final.user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project_final.user_service.dto.CachedOrdersDTO;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.exceptions.OrderServiceException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché stale-while-revalidate de las órdenes de cada usuario.
+ * <ul>
+ *   <li>Dentro de fresh-ttl se sirve la copia cacheada sin más.</li>
+ *   <li>Dentro de stale-ttl se sirve la copia (marcada como caducada) y se lanza un único refresco en segundo plano.</li>
+ *   <li>Si Order Service falla, se sirve la última copia buena mientras no supere stale-if-error.</li>
+ * </ul>
+ */
+@Component
+public class OrderListCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderListCache.class);
+
+    private final Cache<Long, Entry> entries;
+    private final Duration freshTtl;
+    private final Duration staleTtl;
+    private final Duration staleIfError;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+
+    // Usuarios con un refresco en curso, para no lanzar más de uno a la vez
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong freshHits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong staleOnError = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong backgroundRefreshes = new AtomicLong();
+
+    @Autowired
+    public OrderListCache(@Value("${user.orders.cache.max-size:10000}") long maxSize,
+                          @Value("${user.orders.cache.fresh-ttl:PT5S}") Duration freshTtl,
+                          @Value("${user.orders.cache.stale-ttl:PT1M}") Duration staleTtl,
+                          @Value("${user.orders.cache.stale-if-error:PT10M}") Duration staleIfError,
+                          @Qualifier("orderRefreshExecutor") Executor refreshExecutor) {
+        this(maxSize, freshTtl, staleTtl, staleIfError, refreshExecutor, Clock.systemUTC());
+    }
+
+    public OrderListCache(long maxSize, Duration freshTtl, Duration staleTtl, Duration staleIfError,
+                          Executor refreshExecutor, Clock clock) {
+        this.freshTtl = freshTtl;
+        this.staleTtl = staleTtl;
+        this.staleIfError = staleIfError;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(staleTtl.compareTo(staleIfError) > 0 ? staleTtl : staleIfError)
+                .build();
+    }
+
+    // Obtener las órdenes de un usuario aplicando la política stale-while-revalidate
+    public CachedOrdersDTO get(Long userId, Supplier<List<OrderDTO>> loader) {
+        Entry entry = entries.getIfPresent(userId);
+        Instant now = clock.instant();
+
+        if (entry != null) {
+            Duration age = Duration.between(entry.fetchedAt, now);
+            if (age.compareTo(freshTtl) < 0) {
+                freshHits.incrementAndGet();
+                return entry.toDto(false);
+            }
+            if (age.compareTo(staleTtl) < 0) {
+                staleHits.incrementAndGet();
+                refreshInBackground(userId, loader);
+                return entry.toDto(true);
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            return load(userId, loader).toDto(false);
+        } catch (OrderServiceException e) {
+            if (entry != null && Duration.between(entry.fetchedAt, now).compareTo(staleIfError) < 0) {
+                logger.warn("Order Service no disponible, se sirven órdenes cacheadas del usuario {}", userId);
+                staleOnError.incrementAndGet();
+                return entry.toDto(true);
+            }
+            throw e;
+        }
+    }
+
+    public void evict(Long userId) {
+        entries.invalidate(userId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.estimatedSize());
+        stats.put("freshHits", freshHits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("staleOnError", staleOnError.get());
+        stats.put("misses", misses.get());
+        stats.put("backgroundRefreshes", backgroundRefreshes.get());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.orders.cache.size", entries, Cache::estimatedSize)
+                .description("Usuarios con órdenes en caché")
+                .register(registry);
+        bindRequests(registry, "fresh", freshHits);
+        bindRequests(registry, "stale", staleHits);
+        bindRequests(registry, "stale-on-error", staleOnError);
+        bindRequests(registry, "miss", misses);
+        FunctionCounter.builder("users.orders.cache.background-refreshes", backgroundRefreshes, AtomicLong::get)
+                .description("Refrescos lanzados en segundo plano")
+                .register(registry);
+    }
+
+    private static void bindRequests(MeterRegistry registry, String result, AtomicLong counter) {
+        FunctionCounter.builder("users.orders.cache.requests", counter, AtomicLong::get)
+                .description("Consultas de órdenes por resultado de la caché")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Entry load(Long userId, Supplier<List<OrderDTO>> loader) {
+        Entry fresh = new Entry(loader.get(), clock.instant());
+        entries.put(userId, fresh);
+        return fresh;
+    }
+
+    private void refreshInBackground(Long userId, Supplier<List<OrderDTO>> loader) {
+        if (!refreshing.add(userId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    backgroundRefreshes.incrementAndGet();
+                    load(userId, loader);
+                } catch (RuntimeException e) {
+                    // La copia caducada se sigue sirviendo; el siguiente acceso volverá a intentarlo
+                    logger.warn("No se pudieron refrescar las órdenes del usuario {}: {}", userId, e.getMessage());
+                } finally {
+                    refreshing.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(userId);
+        }
+    }
+
+    private record Entry(List<OrderDTO> orders, Instant fetchedAt) {
+
+        CachedOrdersDTO toDto(boolean stale) {
+            return new CachedOrdersDTO(orders, fetchedAt, stale);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.project_final.user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project_final.user_service.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caché read-through de usuarios indexada por ID y por email.
+ * Acotada por tamaño y por TTL; las cargas concurrentes de una misma clave
+ * se resuelven con una única consulta a la base de datos.
+ * <p>
+ * Un índice ID -> email permite invalidar la entrada por email de un usuario
+ * en las modificaciones y bajas sin recorrer la caché. Las claves por email se
+ * normalizan (trim + minúsculas) porque MySQL compara los emails sin distinguir
+ * mayúsculas: todas las variantes de un email comparten una única entrada.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, User> byId;
+    private final Cache<String, User> byEmail;
+    // Clave normalizada con la que está cada usuario en byEmail; se limpia al desalojarse la entrada
+    private final Map<Long, String> emailById = new ConcurrentHashMap<>();
+
+    public UserCache(@Value("${user.cache.max-size:10000}") long maxSize,
+                     @Value("${user.cache.ttl:PT5M}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                // Síncrono (por tamaño o TTL); las invalidaciones explícitas limpian el índice ellas mismas
+                .evictionListener((String email, User user, RemovalCause cause) -> {
+                    if (user != null) {
+                        emailById.remove(user.getId(), email);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    // Obtener por ID, cargando desde el loader si no está en caché
+    public Optional<User> getById(Long id, Function<Long, Optional<User>> loader) {
+        User user = byId.get(id, key -> loader.apply(key).orElse(null));
+        if (user != null) {
+            putByEmail(user);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    // Obtener por email, cargando desde el loader si no está en caché
+    public Optional<User> getByEmail(String email, Function<String, Optional<User>> loader) {
+        String key = emailKey(email);
+        User user = byEmail.get(key, k -> loader.apply(email).orElse(null));
+        if (user != null) {
+            emailById.put(user.getId(), key);
+            byId.put(user.getId(), user);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    // Consultar la caché sin cargar desde la base de datos
+    public Optional<User> peekById(Long id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    // Obtener varios por ID: los aciertos salen de la caché y solo los fallos se piden al loader
+    public Map<Long, User> getAllById(Iterable<Long> ids, Function<Set<? extends Long>, Map<Long, User>> loader) {
+        Map<Long, User> found = byId.getAll(ids, loader);
+        found.values().forEach(this::putByEmail);
+        return found;
+    }
+
+    // Obtener varios por email con la misma estrategia que getAllById; el resultado usa los emails
+    // tal como se pidieron y el loader recibe una variante de cada clave normalizada
+    public Map<String, User> getAllByEmail(Iterable<String> emails, Function<Set<? extends String>, Map<String, User>> loader) {
+        Map<String, List<String>> requestedByKey = new LinkedHashMap<>();
+        for (String email : emails) {
+            requestedByKey.computeIfAbsent(emailKey(email), k -> new ArrayList<>()).add(email);
+        }
+
+        Map<String, User> found = byEmail.getAll(requestedByKey.keySet(), keys -> {
+            Map<String, String> keyByRequested = new HashMap<>();
+            keys.forEach(key -> keyByRequested.put(requestedByKey.get(key).get(0), key));
+            Map<String, User> loaded = new HashMap<>();
+            loader.apply(keyByRequested.keySet()).forEach((email, user) -> loaded.put(keyByRequested.get(email), user));
+            return loaded;
+        });
+
+        Map<String, User> result = new LinkedHashMap<>();
+        found.forEach((key, user) -> {
+            emailById.put(user.getId(), key);
+            byId.put(user.getId(), user);
+            requestedByKey.get(key).forEach(email -> result.put(email, user));
+        });
+        return result;
+    }
+
+    // Guardar un usuario recién escrito en ambos índices
+    public void put(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        byId.put(user.getId(), user);
+        putByEmail(user);
+    }
+
+    // Invalidar un usuario, el email indexado para él y todos los emails que haya podido tener
+    public void evict(Long id, String... emails) {
+        if (id != null) {
+            byId.invalidate(id);
+            String indexed = emailById.remove(id);
+            if (indexed != null) {
+                byEmail.invalidate(indexed);
+            }
+        }
+        for (String email : emails) {
+            if (email != null) {
+                byEmail.invalidate(emailKey(email));
+            }
+        }
+    }
+
+    // Invalidar un usuario sin conocer su email: se toma de la entrada por ID y del índice
+    public void evictById(Long id) {
+        User cached = byId.asMap().remove(id);
+        String indexed = emailById.remove(id);
+        if (cached != null) {
+            byEmail.invalidate(emailKey(cached.getEmail()));
+        }
+        if (indexed != null) {
+            byEmail.invalidate(indexed);
+        }
+    }
+
+    public void clear() {
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+        emailById.clear();
+    }
+
+    // Estadísticas de aciertos, fallos y desalojos para dimensionar la caché
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", toMap(byId.stats(), byId.estimatedSize()));
+        stats.put("byEmail", toMap(byEmail.stats(), byEmail.estimatedSize()));
+        return stats;
+    }
+
+    public Cache<Long, User> getByIdCache() {
+        return byId;
+    }
+
+    public Cache<String, User> getByEmailCache() {
+        return byEmail;
+    }
+
+    // Si el email estaba cacheado para otro usuario (cambio de email) se corrige su índice
+    private void putByEmail(User user) {
+        String key = emailKey(user.getEmail());
+        emailById.put(user.getId(), key);
+        User previous = byEmail.asMap().put(key, user);
+        if (previous != null && !previous.getId().equals(user.getId())) {
+            emailById.remove(previous.getId(), key);
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictions", stats.evictionCount());
+        map.put("loadFailures", stats.loadFailureCount());
+        return map;
+    }
+}
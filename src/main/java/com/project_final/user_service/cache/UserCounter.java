@@ -0,0 +1,84 @@
+package com.project_final.user_service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Total de usuarios mantenido en memoria para no ejecutar COUNT(*) en cada consulta.
+ * Las altas y bajas lo ajustan al confirmarse su transacción y se reconcilia
+ * periódicamente con la base de datos para corregir escrituras hechas por otras vías.
+ */
+@Component
+public class UserCounter implements MeterBinder {
+
+    private final AtomicLong total = new AtomicLong();
+    private volatile boolean initialized;
+
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong lastDrift = new AtomicLong();
+
+    // Total actual, vacío hasta la primera reconciliación
+    public OptionalLong get() {
+        return initialized ? OptionalLong.of(total.get()) : OptionalLong.empty();
+    }
+
+    // Sumar (o restar) usuarios; dentro de una transacción se aplica solo si se confirma
+    public void add(long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    total.addAndGet(delta);
+                }
+            });
+        } else {
+            total.addAndGet(delta);
+        }
+    }
+
+    // Fijar el total con el valor leído de la base de datos
+    public void reconcile(long count) {
+        long previous = total.getAndSet(count);
+        if (initialized) {
+            lastDrift.set(count - previous);
+        }
+        initialized = true;
+        reconciliations.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // NaN hasta la primera reconciliación
+        Gauge.builder("users.count", this, counter -> counter.initialized ? counter.total.get() : Double.NaN)
+                .description("Total de usuarios mantenido en memoria")
+                .register(registry);
+        Gauge.builder("users.count.last-drift", lastDrift, AtomicLong::get)
+                .description("Diferencia corregida en la última reconciliación")
+                .register(registry);
+        FunctionCounter.builder("users.count.reconciliations", reconciliations, AtomicLong::get)
+                .description("Reconciliaciones con COUNT(*)")
+                .register(registry);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("initialized", initialized);
+        stats.put("total", total.get());
+        stats.put("reconciliations", reconciliations.get());
+        stats.put("lastDrift", lastDrift.get());
+        return stats;
+    }
+}
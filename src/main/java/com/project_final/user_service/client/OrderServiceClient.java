@@ -0,0 +1,143 @@
+package com.project_final.user_service.client;
+
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.exceptions.OrderServiceException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cliente de Order Service. Cada llamada pasa por un bulkhead que limita las
+ * peticiones simultáneas y por un circuit breaker que falla rápido cuando
+ * Order Service está degradado. Las peticiones concurrentes para un mismo
+ * usuario comparten una única llamada remota.
+ */
+@Component
+public class OrderServiceClient {
+
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final String orderServiceUrl;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight<Long, List<OrderDTO>> ordersByUser = new SingleFlight<>();
+
+    public OrderServiceClient(RestTemplate restTemplate,
+                              CircuitBreaker orderServiceCircuitBreaker,
+                              Bulkhead orderServiceBulkhead,
+                              PoolingHttpClientConnectionManager orderServiceConnectionManager,
+                              @Value("${order.service.url:http://order-service/api/orders}") String orderServiceUrl,
+                              MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = orderServiceCircuitBreaker;
+        this.bulkhead = orderServiceBulkhead;
+        this.connectionManager = orderServiceConnectionManager;
+        this.orderServiceUrl = orderServiceUrl;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Obtener las órdenes de un usuario; si ya hay una llamada en curso para él, se espera su resultado
+    public List<OrderDTO> getOrdersByUser(Long userId) {
+        return ordersByUser.execute(userId, () -> fetchOrdersByUser(userId));
+    }
+
+    // Cada llamada real a Order Service se mide con su resultado y el tipo de excepción
+    private List<OrderDTO> fetchOrdersByUser(Long userId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return callOrderService(userId);
+        } catch (OrderServiceException e) {
+            exception = (e.getCause() != null ? e.getCause() : e).getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("order.service.requests")
+                    .description("Llamadas a Order Service (incluye las rechazadas por el circuit breaker o el bulkhead)")
+                    .tag("outcome", "none".equals(exception) ? "SUCCESS" : "ERROR")
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    private List<OrderDTO> callOrderService(Long userId) {
+        // Plantilla de URI para que las métricas HTTP no creen una serie por usuario
+        Supplier<OrderDTO[]> call = () -> restTemplate.getForObject(
+                orderServiceUrl + "/user/{userId}", OrderDTO[].class, userId);
+
+        try {
+            OrderDTO[] orders = Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+            return orders != null ? List.of(orders) : List.of();
+        } catch (CallNotPermittedException e) {
+            throw new OrderServiceException("Order Service no disponible (circuito abierto) para el usuario con ID: " + userId, e);
+        } catch (BulkheadFullException e) {
+            throw new OrderServiceException("Demasiadas peticiones simultáneas a Order Service para el usuario con ID: " + userId, e);
+        } catch (RestClientException e) {
+            throw new OrderServiceException(userId, e);
+        } catch (RuntimeException e) {
+            // Cualquier otro fallo llega a todos los que esperaban como OrderServiceException
+            throw new OrderServiceException(userId, e);
+        }
+    }
+
+    // Estado del circuit breaker, del bulkhead y del pool de conexiones
+    public Map<String, Object> getStats() {
+        CircuitBreaker.Metrics breakerMetrics = circuitBreaker.getMetrics();
+        Map<String, Object> breaker = new LinkedHashMap<>();
+        breaker.put("state", circuitBreaker.getState().name());
+        breaker.put("failureRate", breakerMetrics.getFailureRate());
+        breaker.put("slowCallRate", breakerMetrics.getSlowCallRate());
+        breaker.put("bufferedCalls", breakerMetrics.getNumberOfBufferedCalls());
+        breaker.put("notPermittedCalls", breakerMetrics.getNumberOfNotPermittedCalls());
+
+        Map<String, Object> bulkheadStats = new LinkedHashMap<>();
+        bulkheadStats.put("availableConcurrentCalls", bulkhead.getMetrics().getAvailableConcurrentCalls());
+        bulkheadStats.put("maxAllowedConcurrentCalls", bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+
+        PoolStats poolStats = connectionManager.getTotalStats();
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("leased", poolStats.getLeased());
+        pool.put("available", poolStats.getAvailable());
+        pool.put("pending", poolStats.getPending());
+        pool.put("max", poolStats.getMax());
+
+        Map<String, Object> coalescing = new LinkedHashMap<>();
+        coalescing.put("inFlight", ordersByUser.getInFlight());
+        coalescing.put("remoteCalls", ordersByUser.getExecutions());
+        coalescing.put("sharedCalls", ordersByUser.getShared());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitBreaker", breaker);
+        stats.put("bulkhead", bulkheadStats);
+        stats.put("connectionPool", pool);
+        stats.put("coalescing", coalescing);
+        return stats;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+}
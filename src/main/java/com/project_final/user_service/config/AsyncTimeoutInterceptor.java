@@ -0,0 +1,33 @@
+package com.project_final.user_service.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Timeout asíncrono propio para un endpoint concreto (p. ej. la exportación
+ * NDJSON), sin tocar spring.mvc.async.request-timeout. El controlador lo pide
+ * con {@link #overrideTimeout} y se aplica antes de iniciar el procesamiento
+ * asíncrono del StreamingResponseBody.
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    // Duración cero o negativa = sin límite
+    public static void overrideTimeout(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout.isZero() || timeout.isNegative() ? -1L : timeout.toMillis());
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, NativeWebRequest.SCOPE_REQUEST);
+        if (timeout instanceof Long millis && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(millis);
+        }
+    }
+}
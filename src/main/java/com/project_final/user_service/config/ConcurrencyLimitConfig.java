@@ -0,0 +1,71 @@
+package com.project_final.user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.limit.AdaptiveConcurrencyLimit;
+import com.project_final.user_service.limit.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Límites de concurrencia adaptativos delante de UserController. Las métricas
+ * users.concurrency.limit, users.concurrency.in-flight y
+ * users.concurrency.rejected (etiqueta group) se registran solas: los límites
+ * son MeterBinder.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimit databaseConcurrencyLimit(
+            @Value("${user.concurrency-limit.database.initial:20}") int initial,
+            @Value("${user.concurrency-limit.database.min:4}") int min,
+            @Value("${user.concurrency-limit.database.max:200}") int max,
+            @Value("${user.concurrency-limit.database.latency-threshold:PT0.25S}") Duration latencyThreshold,
+            @Value("${user.concurrency-limit.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimit("database", initial, min, max, latencyThreshold, backoffRatio);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit orderServiceConcurrencyLimit(
+            @Value("${user.concurrency-limit.order-service.initial:10}") int initial,
+            @Value("${user.concurrency-limit.order-service.min:2}") int min,
+            @Value("${user.concurrency-limit.order-service.max:50}") int max,
+            @Value("${user.concurrency-limit.order-service.latency-threshold:PT1S}") Duration latencyThreshold,
+            @Value("${user.concurrency-limit.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimit("order-service", initial, min, max, latencyThreshold, backoffRatio);
+    }
+
+    // Carga en bloque y búsqueda múltiple: su latencia normal supera la del grupo database
+    @Bean
+    public AdaptiveConcurrencyLimit bulkConcurrencyLimit(
+            @Value("${user.concurrency-limit.bulk.initial:4}") int initial,
+            @Value("${user.concurrency-limit.bulk.min:1}") int min,
+            @Value("${user.concurrency-limit.bulk.max:20}") int max,
+            @Value("${user.concurrency-limit.bulk.latency-threshold:PT5S}") Duration latencyThreshold,
+            @Value("${user.concurrency-limit.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimit("bulk", initial, min, max, latencyThreshold, backoffRatio);
+    }
+
+    // Justo después del filtro de observación, para que los 503 aparezcan en http.server.requests
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimit databaseConcurrencyLimit,
+            AdaptiveConcurrencyLimit orderServiceConcurrencyLimit,
+            AdaptiveConcurrencyLimit bulkConcurrencyLimit,
+            @Value("${user.concurrency-limit.retry-after:PT1S}") Duration retryAfter,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(databaseConcurrencyLimit, orderServiceConcurrencyLimit,
+                        bulkConcurrencyLimit, retryAfter, objectMapper));
+        registration.addUrlPatterns("/api/users", "/api/users/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,39 @@
+package com.project_final.user_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+/**
+ * Contador de errores por tipo de excepción. Además anota la excepción en la
+ * observación de la petición en curso: cuando el error se convierte en una
+ * respuesta (en el controlador o en el ControllerAdvice) http.server.requests
+ * no la ve y la etiqueta exception quedaría en "none".
+ */
+@Component
+public class ErrorMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public ErrorMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(Throwable error) {
+        Counter.builder("users.errors")
+                .description("Errores de la API de usuarios por tipo de excepción")
+                .tag("exception", error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            ServerHttpObservationFilter.findObservationContext(servletAttributes.getRequest())
+                    .ifPresent(context -> context.setError(error));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.project_final.user_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Ejecutores de tareas en segundo plano
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${user.orders.cache.refresh-threads:4}")
+    private int refreshThreads;
+
+    @Value("${user.orders.cache.refresh-queue:200}")
+    private int refreshQueue;
+
+    // Refrescos en segundo plano de la caché de órdenes; si la cola se llena el refresco se descarta
+    @Bean
+    public ThreadPoolTaskExecutor orderRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshThreads);
+        executor.setMaxPoolSize(refreshThreads);
+        executor.setQueueCapacity(refreshQueue);
+        executor.setThreadNamePrefix("order-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,58 @@
+package com.project_final.user_service.config;
+
+import com.project_final.user_service.grpc.GrpcServerLifecycle;
+import com.project_final.user_service.grpc.UserLookupGrpcService;
+import com.project_final.user_service.limit.AdaptiveConcurrencyLimit;
+import com.project_final.user_service.limit.ConcurrencyLimitServerInterceptor;
+import com.project_final.user_service.service.UserService;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * API gRPC de consulta de usuarios (src/main/proto/user_lookup.proto) en
+ * user.grpc.port. Desactivada salvo con user.grpc.enabled=true: escucha en
+ * texto plano y solo debe exponerse en la red interna. Las llamadas pasan por
+ * los mismos límites de concurrencia que /api/users y, con
+ * user.virtual-threads.enabled=true, se atienden en el mismo ejecutor de hilos
+ * virtuales que las peticiones HTTP.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user.grpc.enabled", havingValue = "true")
+public class GrpcServerConfig {
+
+    @Bean
+    public UserLookupGrpcService userLookupGrpcService(UserService userService, ErrorMetrics errorMetrics) {
+        return new UserLookupGrpcService(userService, errorMetrics);
+    }
+
+    @Bean
+    public GrpcServerLifecycle grpcServer(
+            UserLookupGrpcService userLookupGrpcService,
+            @Value("${user.grpc.port:9090}") int port,
+            @Value("${user.grpc.shutdown-grace-period:PT10S}") Duration shutdownGracePeriod,
+            @Value("${user.concurrency-limit.retry-after:PT1S}") Duration retryAfter,
+            @Qualifier("databaseConcurrencyLimit") ObjectProvider<AdaptiveConcurrencyLimit> databaseConcurrencyLimit,
+            @Qualifier("orderServiceConcurrencyLimit") ObjectProvider<AdaptiveConcurrencyLimit> orderServiceConcurrencyLimit,
+            @Qualifier("bulkConcurrencyLimit") ObjectProvider<AdaptiveConcurrencyLimit> bulkConcurrencyLimit,
+            @Qualifier("requestVirtualThreadExecutor") ObjectProvider<ExecutorService> virtualThreadExecutor) {
+        ServerServiceDefinition service = userLookupGrpcService.bindService();
+        // Sin límites solo si user.concurrency-limit.enabled=false, igual que en la API REST
+        AdaptiveConcurrencyLimit databaseLimit = databaseConcurrencyLimit.getIfAvailable();
+        AdaptiveConcurrencyLimit orderServiceLimit = orderServiceConcurrencyLimit.getIfAvailable();
+        AdaptiveConcurrencyLimit bulkLimit = bulkConcurrencyLimit.getIfAvailable();
+        if (databaseLimit != null && orderServiceLimit != null && bulkLimit != null) {
+            service = ServerInterceptors.intercept(service,
+                    new ConcurrencyLimitServerInterceptor(databaseLimit, orderServiceLimit, bulkLimit, retryAfter));
+        }
+        return new GrpcServerLifecycle(service, port, shutdownGracePeriod, virtualThreadExecutor.getIfAvailable());
+    }
+}
@@ -0,0 +1,77 @@
+package com.project_final.user_service.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.project_final.user_service.dto.BatchResultDTO;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.dto.UserOperationDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+/**
+ * Serialización JSON de las respuestas. Blackbird sustituye la reflexión de
+ * getters y setters por accesores generados, y al arrancar se resuelven los
+ * serializadores de las respuestas más frecuentes para que la primera
+ * petición no pague su construcción. Los clientes internos pueden pedir CBOR
+ * (Accept: application/cbor) en lugar de JSON; el esquema está en
+ * schemas/users.cddl. Cada formato tiene su propio ETag (UserETags) y las
+ * respuestas llevan Vary: Accept (ContentNegotiationConfig).
+ */
+@Configuration
+public class JacksonConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JacksonConfig.class);
+
+    private static final List<Class<?>> RESPONSE_TYPES = List.of(
+            UserOperationDTO.class, UserDTO.class, User.class, UserPageDTO.class,
+            BatchResultDTO.class, UserLookupResultDTO.class, OrderDTO.class);
+
+    // Spring Boot registra cualquier Module en el ObjectMapper que usa Spring MVC
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Spring Boot añade cualquier HttpMessageConverter a los de Spring MVC; parte del builder de Boot
+    // para compartir módulos y configuración con el JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper(builder));
+    }
+
+    // En CBOR las fechas van como arrays de enteros [año, mes, día, hora, minuto, segundo, nanos]:
+    // ni se formatean ni se parsean como texto ISO-8601
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    // canSerialize deja el serializador en la caché compartida del ObjectMapper
+    @EventListener(ApplicationReadyEvent.class)
+    public void resolveSerializers(ApplicationReadyEvent event) {
+        ObjectProvider<ObjectMapper> objectMapper = event.getApplicationContext().getBeanProvider(ObjectMapper.class);
+        objectMapper.ifAvailable(mapper -> {
+            long resolved = RESPONSE_TYPES.stream().filter(mapper::canSerialize).count();
+            logger.info("Serializadores JSON resueltos al arrancar: {}/{}", resolved, RESPONSE_TYPES.size());
+        });
+        event.getApplicationContext().getBeanProvider(MappingJackson2CborHttpMessageConverter.class)
+                .ifAvailable(converter -> RESPONSE_TYPES.forEach(converter.getObjectMapper()::canSerialize));
+    }
+}
@@ -0,0 +1,52 @@
+package com.project_final.user_service.config;
+
+import com.project_final.user_service.cache.UserCache;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas que Spring Boot no registra por sí solo. Los timers de los endpoints
+ * (http.server.requests), del repositorio (spring.data.repository.invocations),
+ * del RestTemplate (http.client.requests) y del pool de Hikari ya los publica el
+ * actuator; aquí se añaden el pool HTTP de Order Service, el circuit breaker,
+ * el bulkhead y las cachés de usuarios.
+ * <p>
+ * EmailBloomFilter (users.email-filter.*), OrderListCache (users.orders.cache.*)
+ * y UserCounter (users.count*) son MeterBinder y se registran solos.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Conexiones alquiladas, libres y en espera del pool hacia Order Service
+    @Bean
+    public MeterBinder orderServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager orderServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(orderServiceConnectionManager, "orderService");
+    }
+
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+    }
+
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
+    }
+
+    // Aciertos, fallos y desalojos de la caché (ya se recogen con recordStats)
+    @Bean
+    public MeterBinder userCacheMetrics(UserCache userCache) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, userCache.getByIdCache(), "usersById");
+            CaffeineCacheMetrics.monitor(registry, userCache.getByEmailCache(), "usersByEmail");
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.project_final.user_service.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+
+/**
+ * Bulkhead y circuit breaker de las llamadas a Order Service
+ */
+@Configuration
+public class OrderServiceResilienceConfig {
+
+    // Porcentaje de fallos (o llamadas lentas) a partir del cual se abre el circuito
+    @Value("${order.service.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${order.service.circuit-breaker.slow-call-threshold:PT1.5S}")
+    private Duration slowCallThreshold;
+
+    @Value("${order.service.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${order.service.circuit-breaker.minimum-calls:10}")
+    private int minimumNumberOfCalls;
+
+    @Value("${order.service.circuit-breaker.open-duration:PT10S}")
+    private Duration openDuration;
+
+    @Value("${order.service.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    // Máximo de llamadas simultáneas a Order Service y cuánto se espera por un hueco
+    @Value("${order.service.bulkhead.max-concurrent-calls:20}")
+    private int maxConcurrentCalls;
+
+    @Value("${order.service.bulkhead.max-wait:PT0S}")
+    private Duration bulkheadMaxWait;
+
+    // Los registros permiten publicar las métricas de resilience4j en Micrometer
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry() {
+        return CircuitBreakerRegistry.ofDefaults();
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry() {
+        return BulkheadRegistry.ofDefaults();
+    }
+
+    @Bean
+    public CircuitBreaker orderServiceCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordExceptions(RestClientException.class)
+                // Un 4xx es una respuesta válida de Order Service, no un síntoma de que esté caído
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+        return circuitBreakerRegistry.circuitBreaker("orderService", config);
+    }
+
+    @Bean
+    public Bulkhead orderServiceBulkhead(BulkheadRegistry bulkheadRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(bulkheadMaxWait)
+                .build();
+        return bulkheadRegistry.bulkhead("orderService", config);
+    }
+}
@@ -0,0 +1,42 @@
+package com.project_final.user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.outbox.FileUserChangeEventSink;
+import com.project_final.user_service.outbox.InMemoryUserChangeEventSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Destino de los eventos de cambio del outbox según user.outbox.sink: file o
+ * memory (solo pruebas locales). No hay destino por defecto: con el relay
+ * activo y sin user.outbox.sink ni un bean UserChangeEventSink propio (un
+ * broker, por ejemplo) la aplicación no arranca, en lugar de publicar los
+ * eventos donde nadie los lee y borrarlos del outbox.
+ */
+@Configuration
+public class OutboxConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "user.outbox.sink", havingValue = "memory")
+    public InMemoryUserChangeEventSink inMemoryUserChangeEventSink(
+            @Value("${user.outbox.memory.capacity:10000}") int capacity) {
+        logger.warn("Eventos de cambio publicados en memoria (user.outbox.sink=memory): solo para pruebas locales");
+        return new InMemoryUserChangeEventSink(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "user.outbox.sink", havingValue = "file")
+    public FileUserChangeEventSink fileUserChangeEventSink(
+            @Value("${user.outbox.file.path:user-changes.ndjson}") Path path,
+            ObjectMapper objectMapper) {
+        return new FileUserChangeEventSink(path, objectMapper);
+    }
+}
@@ -0,0 +1,102 @@
+package com.project_final.user_service.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Réplicas de lectura (user.datasource.replicas.urls, separadas por comas).
+ * Sin réplicas configuradas no se activa y todo va al primario como hasta ahora.
+ * <p>
+ * Las réplicas usan el usuario, la contraseña y la configuración de Hikari del
+ * primario; solo cambia la URL. Las transacciones readOnly (las consultas de
+ * UserRepository y los find de JpaRepository) van a una réplica; las escrituras
+ * y las lecturas del mismo cliente dentro de la ventana read-your-writes, al primario.
+ */
+@Configuration
+@ConditionalOnExpression("!'${user.datasource.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Value("${user.datasource.replicas.urls}")
+    private String replicaUrls;
+
+    @Value("${user.datasource.replicas.selection:round-robin}")
+    private String selection;
+
+    @Value("${user.datasource.read-your-writes-window:PT1S}")
+    private Duration readYourWritesWindow;
+
+    @Value("${user.datasource.read-your-writes-max-clients:100000}")
+    private long readYourWritesMaxClients;
+
+    // El primario con la configuración habitual de spring.datasource.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("user-primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setPoolName("user-replica-" + i);
+            // Sin esto el pool de la réplica no aparece en hikaricp.connections.*
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null && config.getMetricsTrackerFactory() == null && config.getMetricRegistry() == null) {
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        logger.info("Lecturas repartidas entre {} réplicas ({}), read-your-writes {}",
+                replicas.size(), selection, readYourWritesWindow);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                ReplicaRoutingDataSource.Selection.from(selection), readYourWritesWindow);
+    }
+
+    // El que usan JPA y JdbcTemplate: la conexión real se elige en la primera sentencia
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return new ReadYourWritesInterceptor(readYourWritesWindow, readYourWritesMaxClients);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWritesInterceptor());
+    }
+}
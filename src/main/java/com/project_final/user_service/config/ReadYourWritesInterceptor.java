@@ -0,0 +1,65 @@
+package com.project_final.user_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Recuerda qué clientes han escrito hace poco para que sus siguientes
+ * peticiones lean del primario y no de una réplica que aún no tenga el cambio.
+ * El cliente se identifica con la cabecera X-Client-Id o, si no viene, con la
+ * dirección remota.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final Duration window;
+    // Cliente -> instante (System.nanoTime) hasta el que sus lecturas van al primario
+    private final Cache<String, Long> primaryUntil;
+
+    public ReadYourWritesInterceptor(Duration window, long maxClients) {
+        this.window = window;
+        this.primaryUntil = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.resetCurrentThread();
+        Long deadline = primaryUntil.getIfPresent(clientKey(request));
+        if (deadline != null) {
+            ReplicaRoutingDataSource.pinToPrimaryUntil(deadline);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        try {
+            Long deadline = ReplicaRoutingDataSource.readYourWritesDeadline(window);
+            if (deadline != null) {
+                primaryUntil.put(clientKey(request), deadline);
+            }
+        } finally {
+            ReplicaRoutingDataSource.resetCurrentThread();
+        }
+    }
+
+    // La respuesta sigue en otro hilo (exportación): el de la petición queda libre
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.resetCurrentThread();
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+}
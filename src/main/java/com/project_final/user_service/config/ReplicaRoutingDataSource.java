@@ -0,0 +1,160 @@
+package com.project_final.user_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Envía las transacciones de solo lectura a una réplica y todo lo demás al
+ * primario. Debe usarse detrás de un LazyConnectionDataSourceProxy: la
+ * conexión se pide al ejecutar la primera sentencia, cuando la transacción
+ * ya está marcada como readOnly.
+ * <p>
+ * Lectura de lo propio escrito: tras una escritura, las lecturas del mismo
+ * hilo siguen en el primario durante la ventana configurada, y
+ * {@link #pinToPrimaryUntil(long)} permite extenderlo a otras peticiones del
+ * mismo cliente (ver ReadYourWritesInterceptor).
+ * <p>
+ * Las lecturas que llenan cachés compartidas se hacen con {@link #onPrimary}:
+ * una fila atrasada de la réplica quedaría en la caché para todos los
+ * clientes durante todo el TTL.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    // Instante (System.nanoTime) de la última escritura hecha en este hilo
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+    // Hasta cuándo (System.nanoTime) deben ir al primario las lecturas de este hilo
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+    // Lecturas de este hilo forzadas al primario mientras dura onPrimary
+    private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+
+    private final List<HikariDataSource> replicas;
+    private final Selection selection;
+    private final long readYourWritesNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    Selection selection, Duration readYourWritesWindow) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos una réplica");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        long now = System.nanoTime();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Fuera de transacción (arranque, consultas sueltas) se usa el primario sin contarlo como escritura
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                LAST_WRITE.set(now);
+            }
+            return PRIMARY;
+        }
+        if (ON_PRIMARY.get() != null || pinnedToPrimary(now)) {
+            return PRIMARY;
+        }
+        return selection == Selection.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+    }
+
+    // Hasta cuándo debe ir al primario otro trabajo del mismo cliente; null si este hilo no ha escrito
+    public static Long readYourWritesDeadline(Duration window) {
+        Long lastWrite = LAST_WRITE.get();
+        return lastWrite != null ? lastWrite + window.toNanos() : null;
+    }
+
+    // Ejecutar la acción con sus lecturas en el primario (sin contarlas como escritura)
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (ON_PRIMARY.get() != null) {
+            return action.get();
+        }
+        ON_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            ON_PRIMARY.remove();
+        }
+    }
+
+    // Las lecturas de este hilo van al primario hasta el instante indicado (System.nanoTime)
+    public static void pinToPrimaryUntil(long deadlineNanos) {
+        PRIMARY_UNTIL.set(deadlineNanos);
+    }
+
+    // Olvidar escrituras y anclajes del hilo (al terminar cada petición)
+    public static void resetCurrentThread() {
+        LAST_WRITE.remove();
+        PRIMARY_UNTIL.remove();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private boolean pinnedToPrimary(long now) {
+        Long lastWrite = LAST_WRITE.get();
+        if (lastWrite != null && now - lastWrite < readYourWritesNanos) {
+            return true;
+        }
+        Long until = PRIMARY_UNTIL.get();
+        return until != null && now - until < 0;
+    }
+
+    private int roundRobin() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    // Réplica con menos conexiones en uso; los empates se reparten en turno rotatorio
+    private int leastConnections() {
+        int start = roundRobin();
+        int best = start;
+        int bestActive = Integer.MAX_VALUE;
+        for (int k = 0; k < replicas.size(); k++) {
+            int i = (start + k) % replicas.size();
+            HikariPoolMXBean pool = replicas.get(i).getHikariPoolMXBean();
+            int active = pool != null ? pool.getActiveConnections() : 0;
+            if (active < bestActive) {
+                best = i;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS;
+
+        // Admite "round-robin" y "least-connections" (y el nombre del enum)
+        public static Selection from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Selección de réplica no válida: " + value, e);
+            }
+        }
+    }
+}
@@ -1,14 +1,80 @@
 package com.project_final.user_service.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+/**
+ * Cliente HTTP hacia Order Service: pool de conexiones persistentes y
+ * timeouts acotados para que un Order Service lento no retenga los hilos de Tomcat
+ */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${order.service.client.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${order.service.client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${order.service.client.connect-timeout:PT1S}")
+    private Duration connectTimeout;
+
+    @Value("${order.service.client.read-timeout:PT2S}")
+    private Duration readTimeout;
+
+    @Value("${order.service.client.connection-request-timeout:PT0.5S}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${order.service.client.keep-alive:PT30S}")
+    private Duration keepAlive;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager orderServiceConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient orderServiceHttpClient(PoolingHttpClientConnectionManager orderServiceConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(orderServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Tiempo máximo esperando una conexión libre del pool
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .disableAutomaticRetries()
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient orderServiceHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(orderServiceHttpClient))
+                .build();
     }
 }
@@ -0,0 +1,37 @@
+package com.project_final.user_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Modo opcional (user.virtual-threads.enabled=true, Java 21) en el que Tomcat atiende
+ * cada petición en un hilo virtual. La llamada a Order Service se hace en el hilo de la
+ * petición, así que también corre en hilo virtual.
+ * <p>
+ * La concurrencia real sigue acotada por el pool de Hikari (base de datos) y por el
+ * bulkhead de Order Service, no por el número de hilos.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestVirtualThreadExecutor() {
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        logger.info("Peticiones HTTP atendidas en hilos virtuales");
+        return executor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService requestVirtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestVirtualThreadExecutor);
+    }
+}
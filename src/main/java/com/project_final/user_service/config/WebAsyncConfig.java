@@ -0,0 +1,19 @@
+package com.project_final.user_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Procesamiento asíncrono de Spring MVC: el timeout global sigue siendo
+ * spring.mvc.async.request-timeout y los endpoints que lo necesitan lo
+ * sustituyen con AsyncTimeoutInterceptor.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor());
+    }
+}
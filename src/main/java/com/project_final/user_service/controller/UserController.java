@@ -1,18 +1,43 @@
 package com.project_final.user_service.controller;
 
+import com.project_final.user_service.config.AsyncTimeoutInterceptor;
+import com.project_final.user_service.config.ErrorMetrics;
 import com.project_final.user_service.model.User;
+import com.project_final.user_service.dto.BatchResultDTO;
+import com.project_final.user_service.dto.CachedOrdersDTO;
 import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserChangesPageDTO;
+import com.project_final.user_service.dto.UserCountDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupRequestDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.dto.UserOperationDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.dto.UserRequestDTO;
+import com.project_final.user_service.dto.UserVersionDTO;
+import com.project_final.user_service.exceptions.UserNotFoundException;
+import com.project_final.user_service.exceptions.UserPreconditionFailedException;
+import com.project_final.user_service.service.UserExportService;
 import com.project_final.user_service.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
@@ -23,55 +48,127 @@ public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final String TOTAL_COUNT_MODE_HEADER = "X-Total-Count-Mode";
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private ErrorMetrics errorMetrics;
+
+    // Mantener userId, name, email y timestamp en las respuestas de alta/modificación para los clientes existentes
+    @Value("${user.response.legacy-format:true}")
+    private boolean legacyResponseFormat;
+
+    // Timeout asíncrono solo de la exportación (0 = sin límite); el resto usa spring.mvc.async.request-timeout
+    @Value("${user.export.async-timeout:0}")
+    private Duration exportAsyncTimeout;
+
     // Crear usuario
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createUser(@RequestBody User user) {
-        logger.info("Petición para crear usuario: {}", user.getName());
+    public ResponseEntity<UserOperationDTO> createUser(@RequestBody UserRequestDTO request) {
+        logger.info("Petición para crear usuario: {}", request.name());
 
         try {
-            User createdUser = userService.createUser(user);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Usuario creado correctamente");
-            response.put("user", createdUser);
-            response.put("userId", createdUser.getId());
-            response.put("name", createdUser.getName());
-            response.put("email", createdUser.getEmail());
-            response.put("timestamp", LocalDateTime.now());
+            User createdUser = userService.createUser(request.toUser());
 
             logger.info("Usuario creado exitosamente con ID: {}", createdUser.getId());
-            return new ResponseEntity<>(response, HttpStatus.CREATED);
+            return new ResponseEntity<>(UserOperationDTO.success("Usuario creado correctamente",
+                    UserDTO.from(createdUser), legacyResponseFormat), HttpStatus.CREATED);
 
         } catch (RuntimeException e) {
             logger.error("Error creando usuario: {}", e.getMessage());
+            errorMetrics.record(e);
 
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error al crear usuario");
-            errorResponse.put("error", e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
-
-            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(UserOperationDTO.failure("Error al crear usuario", null,
+                    e.getMessage(), legacyResponseFormat), HttpStatus.BAD_REQUEST);
         }
     }
 
-    // Obtener todos los usuarios
+    // Crear usuarios en bloque (upsert=true actualiza los que ya existen)
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> createUsersBatch(@RequestBody List<UserRequestDTO> requests,
+                                                           @RequestParam(defaultValue = "false") boolean upsert) {
+        logger.info("Petición de carga masiva: {} usuarios (upsert={})", requests.size(), upsert);
+
+        // Un elemento null llega a la validación del servicio, que lo rechaza como INVALID
+        List<User> users = requests.stream()
+                .map(request -> request != null ? request.toUser() : null)
+                .toList();
+        BatchResultDTO result = userService.createUsersBatch(users, upsert);
+
+        logger.info("Carga masiva completada: {} creados, {} actualizados, {} rechazados",
+                result.getCreated(), result.getUpdated(), result.getRejected());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Obtener usuarios paginados por cursor (unpaged=true devuelve el listado completo si está habilitado)
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(defaultValue = "false") boolean unpaged,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // Con ETag, Spring responde 304 sin serializar el cuerpo si coincide con If-None-Match.
+        // Sin Last-Modified: una baja no cambia el updatedAt máximo y If-Modified-Since daría un 304 erróneo
+        boolean cbor = UserETags.prefersCbor(accept);
+        if (unpaged) {
+            List<UserDTO> users = userService.getAllUsers();
+            return ResponseEntity.ok().eTag(UserETags.forList(users, null, cbor)).body(users);
+        }
+        UserPageDTO page = userService.getUsersPage(cursor, limit);
+        return ResponseEntity.ok().eTag(UserETags.forList(page.getItems(), page.getNextCursor(), cbor)).body(page);
     }
 
-    // Obtener usuario por ID
+    // Feed incremental: altas, modificaciones y bajas posteriores al cursor, en páginas acotadas
+    @GetMapping("/changes")
+    public ResponseEntity<UserChangesPageDTO> getUserChanges(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.getChanges(cursor, limit));
+    }
+
+    // Exportar usuarios en NDJSON, escribiendo la respuesta a medida que se leen de la base de datos
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            HttpServletRequest request) {
+        logger.info("Petición de exportación de usuarios (since={})", since);
+        AsyncTimeoutInterceptor.overrideTimeout(request, exportAsyncTimeout);
+
+        StreamingResponseBody body = out -> {
+            long exported = userExportService.exportNdjson(since, out);
+            logger.info("Exportación completada: {} usuarios", exported);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    // Obtener usuario por ID (admite If-None-Match / If-Modified-Since)
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
+        boolean cbor = UserETags.prefersCbor(request.getHeader(HttpHeaders.ACCEPT));
+        // Petición condicional: basta la versión para decidir el 304, sin cargar el usuario
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            Optional<UserVersionDTO> version = userService.getUserVersion(id);
+            if (version.isPresent() && version.get().version() != null) {
+                LocalDateTime updatedAt = version.get().updatedAt();
+                long lastModified = updatedAt != null ? UserETags.lastModified(updatedAt).toEpochMilli() : -1;
+                if (request.checkNotModified(UserETags.forUser(id, version.get().version(), cbor), lastModified)) {
+                    return null;
+                }
+            }
+        }
+
         Optional<User> user = userService.getUserById(id);
-        return user.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        if (user.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return withVersionHeaders(ResponseEntity.ok(), user.get(), cbor).body(user.get());
     }
 
     // Obtener usuario por email
@@ -82,37 +179,42 @@ public class UserController {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
-    // Actualizar usuario
+    // Resolver muchos usuarios por ID y/o email en una sola petición
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookupResultDTO> lookupUsers(@RequestBody UserLookupRequestDTO request) {
+        UserLookupResultDTO result = userService.lookupUsers(request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Actualizar usuario (con If-Match solo si sigue en esa versión)
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+    public ResponseEntity<UserOperationDTO> updateUser(@PathVariable Long id, @RequestBody UserRequestDTO request,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.info("Petición para actualizar usuario: {}", id);
 
         try {
-            User updatedUser = userService.updateUser(id, userDetails);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Usuario actualizado correctamente");
-            response.put("user", updatedUser);
-            response.put("userId", updatedUser.getId());
-            response.put("name", updatedUser.getName());
-            response.put("email", updatedUser.getEmail());
-            response.put("timestamp", LocalDateTime.now());
+            Long expectedVersion = UserETags.expectedVersion(id, ifMatch);
+            User updatedUser = userService.updateUser(id, request.toUser(), expectedVersion);
 
             logger.info("Usuario {} actualizado exitosamente", id);
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return withVersionHeaders(ResponseEntity.ok(), updatedUser, UserETags.prefersCbor(accept)).body(UserOperationDTO.success(
+                    "Usuario actualizado correctamente", UserDTO.from(updatedUser), legacyResponseFormat));
+
+        } catch (UserPreconditionFailedException e) {
+            // If-Match no es la versión actual (la comprobación va en el propio UPDATE)
+            logger.warn("Conflicto actualizando usuario {}: {}", id, e.getMessage());
+            errorMetrics.record(e);
+
+            return new ResponseEntity<>(UserOperationDTO.failure("Error al actualizar usuario", id,
+                    e.getMessage(), legacyResponseFormat), HttpStatus.PRECONDITION_FAILED);
 
         } catch (RuntimeException e) {
             logger.error("Error actualizando usuario {}: {}", id, e.getMessage());
+            errorMetrics.record(e);
 
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error al actualizar usuario");
-            errorResponse.put("userId", id);
-            errorResponse.put("error", e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
-
-            return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(UserOperationDTO.failure("Error al actualizar usuario", id,
+                    e.getMessage(), legacyResponseFormat), HttpStatus.NOT_FOUND);
         }
     }
 
@@ -122,36 +224,30 @@ public class UserController {
         logger.info("Petición para eliminar usuario: {}", id);
 
         try {
-            // Obtener información del usuario antes de eliminarlo
-            Optional<User> userToDelete = userService.getUserById(id);
-
-            if (userToDelete.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-
+            // Sin lectura previa: el DELETE indica si el usuario existía
             userService.deleteUser(id);
 
             logger.info("Usuario {} eliminado exitosamente", id);
             return ResponseEntity.noContent().build();
 
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.notFound().build();
+
         } catch (RuntimeException e) {
             logger.error("Error eliminando usuario {}: {}", id, e.getMessage());
+            errorMetrics.record(e);
 
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error al eliminar usuario");
-            errorResponse.put("userId", id);
-            errorResponse.put("error", e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
-
-            return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(UserOperationDTO.failure("Error al eliminar usuario", id,
+                    e.getMessage(), legacyResponseFormat), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    // Buscar usuarios por nombre
+    // Buscar usuarios por nombre (y opcionalmente email), ordenados por relevancia
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String name) {
-        List<User> users = userService.searchUsersByName(name);
+    public ResponseEntity<List<UserDTO>> searchUsers(@RequestParam String name,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(defaultValue = "false") boolean includeEmail) {
+        List<UserDTO> users = userService.searchUsers(name, limit, includeEmail);
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
@@ -159,17 +255,53 @@ public class UserController {
     @GetMapping("/{id}/orders")
     public ResponseEntity<List<OrderDTO>> getUserOrders(@PathVariable Long id) {
         try {
-            List<OrderDTO> orders = userService.getUserOrders(id);
-            return new ResponseEntity<>(orders, HttpStatus.OK);
+            CachedOrdersDTO orders = userService.getUserOrdersWithFreshness(id);
+            if (!orders.isStale()) {
+                return new ResponseEntity<>(orders.getOrders(), HttpStatus.OK);
+            }
+            // Copia caducada (Order Service lento o caído): se indica con Warning 110 y Age
+            long ageSeconds = Math.max(0, Duration.between(orders.getFetchedAt(), Instant.now()).getSeconds());
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                    .header(HttpHeaders.AGE, String.valueOf(ageSeconds))
+                    .body(orders.getOrders());
         } catch (RuntimeException e) {
+            errorMetrics.record(e);
             return new ResponseEntity<>(null, HttpStatus.SERVICE_UNAVAILABLE);
         }
     }
 
     // Obtener estadísticas
     @GetMapping("/stats/total")
-    public ResponseEntity<Long> getTotalUsers() {
-        Long total = userService.getTotalUsers();
-        return new ResponseEntity<>(total, HttpStatus.OK);
+    public ResponseEntity<Long> getTotalUsers(@RequestParam(defaultValue = "exact") String mode) {
+        UserCountDTO count = userService.getUserCount(mode);
+        // El cuerpo sigue siendo el número; la cabecera indica si es exacto o aproximado
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_MODE_HEADER, count.getMode().name().toLowerCase(Locale.ROOT))
+                .body(count.getTotal());
+    }
+
+    // Obtener estadísticas de la caché de usuarios
+    @GetMapping("/stats/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return new ResponseEntity<>(userService.getCacheStats(), HttpStatus.OK);
+    }
+
+    // Obtener el estado del cliente de Order Service
+    @GetMapping("/stats/order-client")
+    public ResponseEntity<Map<String, Object>> getOrderClientStats() {
+        return new ResponseEntity<>(userService.getOrderClientStats(), HttpStatus.OK);
+    }
+
+    // ETag (versión) y Last-Modified de un usuario
+    private static ResponseEntity.BodyBuilder withVersionHeaders(ResponseEntity.BodyBuilder response, User user,
+                                                                 boolean cbor) {
+        if (user.getVersion() != null) {
+            response.eTag(UserETags.forUser(user.getId(), user.getVersion(), cbor));
+        }
+        if (user.getUpdatedAt() != null) {
+            response.lastModified(UserETags.lastModified(user.getUpdatedAt()));
+        }
+        return response;
     }
-}
\ No newline at end of file
+}
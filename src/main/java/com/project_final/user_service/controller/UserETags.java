@@ -0,0 +1,108 @@
+package com.project_final.user_service.controller;
+
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.exceptions.UserPreconditionFailedException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ETags fuertes y Last-Modified de usuarios y listados.
+ * <p>
+ * El ETag de un usuario es su versión (@Version), que también sirve para
+ * If-Match en los PUT. El de un listado se calcula con updatedAt, redondeado
+ * a microsegundos (la precisión de la columna datetime(6)) para que una copia
+ * en caché y la fila leída de MySQL den el mismo valor.
+ * <p>
+ * JSON y CBOR son representaciones distintas del mismo recurso: la de CBOR
+ * lleva el sufijo -cbor para que una caché o una petición condicional nunca
+ * confunda una con otra.
+ */
+final class UserETags {
+
+    private static final String CBOR_SUFFIX = "-cbor";
+
+    private UserETags() {
+    }
+
+    // Si la respuesta irá en CBOR: el primer tipo aceptable, por calidad, que admita JSON o CBOR.
+    // */* y la ausencia de Accept dan JSON, el primer conversor registrado
+    static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> types;
+        try {
+            types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Un usuario: su ID, su versión y el formato
+    static String forUser(Long id, Long version, boolean cbor) {
+        return "\"u" + id + "-v" + version + (cbor ? CBOR_SUFFIX : "") + "\"";
+    }
+
+    // Versión que exige If-Match; null si no hay precondición (sin cabecera o "*")
+    static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        // If-Match usa comparación fuerte: un ETag débil (W/) o de otro usuario nunca coincide.
+        // La versión es la misma en ambos formatos, así que se admite el ETag de cualquiera de ellos
+        String tag = ifMatch.trim();
+        if (tag.endsWith(CBOR_SUFFIX + "\"")) {
+            tag = tag.substring(0, tag.length() - CBOR_SUFFIX.length() - 1) + "\"";
+        }
+        String prefix = "\"u" + id + "-v";
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // se trata abajo como un ETag que no coincide
+            }
+        }
+        throw new UserPreconditionFailedException("If-Match no corresponde a ninguna versión del usuario con ID " + id);
+    }
+
+    // Una página o listado: número de filas, updatedAt máximo, huella de los IDs y fechas que contiene y formato
+    static String forList(List<UserDTO> items, String nextCursor, boolean cbor) {
+        long maxUpdatedAt = 0;
+        long fingerprint = 1125899906842597L;
+        for (UserDTO user : items) {
+            long updatedAt = user.updatedAt() != null ? micros(user.updatedAt()) : 0;
+            maxUpdatedAt = Math.max(maxUpdatedAt, updatedAt);
+            fingerprint = 31 * (31 * fingerprint + Objects.hashCode(user.id())) + Long.hashCode(updatedAt);
+        }
+        fingerprint = 31 * fingerprint + Objects.hashCode(nextCursor);
+        return "\"l" + items.size() + "-" + Long.toHexString(maxUpdatedAt) + "-" + Long.toHexString(fingerprint)
+                + (cbor ? CBOR_SUFFIX : "") + "\"";
+    }
+
+    static Instant lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static long micros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + Math.round(value.getNano() / 1_000d);
+    }
+}
@@ -0,0 +1,58 @@
+package com.project_final.user_service.dto;
+
+/**
+ * Resultado de un elemento dentro de una carga masiva de usuarios
+ */
+public class BatchItemResultDTO {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        ALREADY_EXISTS,
+        DUPLICATE_IN_REQUEST,
+        INVALID
+    }
+
+    private final int index;
+    private final String email;
+    private final Status status;
+    private Long userId;
+    private final String error;
+
+    public BatchItemResultDTO(int index, String email, Status status, Long userId, String error) {
+        this.index = index;
+        this.email = email;
+        this.status = status;
+        this.userId = userId;
+        this.error = error;
+    }
+
+    public static BatchItemResultDTO failed(int index, String email, Status status, String error) {
+        return new BatchItemResultDTO(index, email, status, null, error);
+    }
+
+    // Posición del elemento en la petición original
+    public int getIndex() {
+        return index;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
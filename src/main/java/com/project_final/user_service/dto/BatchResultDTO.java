@@ -0,0 +1,39 @@
+package com.project_final.user_service.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de una carga masiva de usuarios con el resultado de cada elemento
+ */
+public class BatchResultDTO {
+
+    private final List<BatchItemResultDTO> results;
+
+    public BatchResultDTO(List<BatchItemResultDTO> results) {
+        this.results = results;
+    }
+
+    public int getTotal() {
+        return results.size();
+    }
+
+    public long getCreated() {
+        return count(BatchItemResultDTO.Status.CREATED);
+    }
+
+    public long getUpdated() {
+        return count(BatchItemResultDTO.Status.UPDATED);
+    }
+
+    public long getRejected() {
+        return getTotal() - getCreated() - getUpdated();
+    }
+
+    public List<BatchItemResultDTO> getResults() {
+        return results;
+    }
+
+    private long count(BatchItemResultDTO.Status status) {
+        return results.stream().filter(r -> r.getStatus() == status).count();
+    }
+}
@@ -0,0 +1,33 @@
+package com.project_final.user_service.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Órdenes de un usuario junto con cuándo se obtuvieron de Order Service
+ * y si se están sirviendo desde una copia caducada
+ */
+public class CachedOrdersDTO {
+
+    private final List<OrderDTO> orders;
+    private final Instant fetchedAt;
+    private final boolean stale;
+
+    public CachedOrdersDTO(List<OrderDTO> orders, Instant fetchedAt, boolean stale) {
+        this.orders = orders;
+        this.fetchedAt = fetchedAt;
+        this.stale = stale;
+    }
+
+    public List<OrderDTO> getOrders() {
+        return orders;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
@@ -0,0 +1,20 @@
+package com.project_final.user_service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de un usuario en el feed: UPSERT con sus datos actuales (alta o
+ * modificación) o DELETE con solo el ID
+ */
+public record UserChangeDTO(Type type, Long id, UserDTO user, LocalDateTime changedAt) {
+
+    public enum Type { UPSERT, DELETE }
+
+    public static UserChangeDTO upsert(UserDTO user) {
+        return new UserChangeDTO(Type.UPSERT, user.id(), user, user.updatedAt());
+    }
+
+    public static UserChangeDTO delete(Long id, LocalDateTime deletedAt) {
+        return new UserChangeDTO(Type.DELETE, id, null, deletedAt);
+    }
+}
@@ -0,0 +1,40 @@
+package com.project_final.user_service.dto;
+
+import java.util.List;
+
+/**
+ * Página del feed de cambios ordenada por (changedAt, id). A diferencia del
+ * listado, nextCursor nunca es null: el consumidor lo guarda y vuelve a
+ * pedir desde ahí en la siguiente sincronización.
+ */
+public class UserChangesPageDTO {
+
+    private final List<UserChangeDTO> changes;
+    private final String nextCursor;
+    private final boolean hasMore;
+    private final int limit;
+
+    public UserChangesPageDTO(List<UserChangeDTO> changes, String nextCursor, boolean hasMore, int limit) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.limit = limit;
+    }
+
+    public List<UserChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    // true si hay más cambios disponibles ya (pedir de nuevo sin esperar)
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
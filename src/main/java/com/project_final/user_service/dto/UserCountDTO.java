@@ -0,0 +1,28 @@
+package com.project_final.user_service.dto;
+
+/**
+ * Total de usuarios indicando si es exacto o una estimación de MySQL
+ */
+public class UserCountDTO {
+
+    public enum Mode {
+        EXACT,
+        APPROXIMATE
+    }
+
+    private final long total;
+    private final Mode mode;
+
+    public UserCountDTO(long total, Mode mode) {
+        this.total = total;
+        this.mode = mode;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+}
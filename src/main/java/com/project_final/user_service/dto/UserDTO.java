@@ -0,0 +1,15 @@
+package com.project_final.user_service.dto;
+
+import com.project_final.user_service.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos públicos de un usuario, desacoplados de la entidad JPA
+ */
+public record UserDTO(Long id, String name, String email, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static UserDTO from(User user) {
+        return new UserDTO(user.getId(), user.getName(), user.getEmail(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
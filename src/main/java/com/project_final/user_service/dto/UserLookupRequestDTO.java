@@ -0,0 +1,37 @@
+package com.project_final.user_service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Petición de búsqueda múltiple de usuarios por IDs y/o emails
+ */
+public class UserLookupRequestDTO {
+
+    private List<Long> ids = new ArrayList<>();
+    private List<String> emails = new ArrayList<>();
+
+    public UserLookupRequestDTO() {
+    }
+
+    public UserLookupRequestDTO(List<Long> ids, List<String> emails) {
+        this.ids = ids;
+        this.emails = emails;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getEmails() {
+        return emails;
+    }
+
+    public void setEmails(List<String> emails) {
+        this.emails = emails;
+    }
+}
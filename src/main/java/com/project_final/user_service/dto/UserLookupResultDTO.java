@@ -0,0 +1,42 @@
+package com.project_final.user_service.dto;
+
+import com.project_final.user_service.model.User;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una búsqueda múltiple, indexado por la clave pedida para que
+ * el llamante pueda cruzarlo sin ordenar
+ */
+public class UserLookupResultDTO {
+
+    private final Map<Long, User> byId;
+    private final Map<String, User> byEmail;
+    private final List<Long> missingIds;
+    private final List<String> missingEmails;
+
+    public UserLookupResultDTO(Map<Long, User> byId, Map<String, User> byEmail,
+                               List<Long> missingIds, List<String> missingEmails) {
+        this.byId = byId;
+        this.byEmail = byEmail;
+        this.missingIds = missingIds;
+        this.missingEmails = missingEmails;
+    }
+
+    public Map<Long, User> getById() {
+        return byId;
+    }
+
+    public Map<String, User> getByEmail() {
+        return byEmail;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public List<String> getMissingEmails() {
+        return missingEmails;
+    }
+}
@@ -0,0 +1,39 @@
+package com.project_final.user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta de alta, modificación y baja de usuarios.
+ * <p>
+ * El formato compacto solo lleva success, message y user (o error). El formato
+ * legacy añade userId, name, email y timestamp, como la respuesta construida
+ * antes con un HashMap, para los clientes que todavía los leen. Los campos a
+ * null no se serializan.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"success", "message", "user", "userId", "name", "email", "error", "timestamp"})
+public record UserOperationDTO(boolean success,
+                               String message,
+                               UserDTO user,
+                               Long userId,
+                               String name,
+                               String email,
+                               String error,
+                               LocalDateTime timestamp) {
+
+    public static UserOperationDTO success(String message, UserDTO user, boolean legacy) {
+        if (!legacy) {
+            return new UserOperationDTO(true, message, user, null, null, null, null, null);
+        }
+        return new UserOperationDTO(true, message, user, user.id(), user.name(), user.email(), null, LocalDateTime.now());
+    }
+
+    // userId puede ser null (alta fallida)
+    public static UserOperationDTO failure(String message, Long userId, String error, boolean legacy) {
+        return new UserOperationDTO(false, message, null, userId, null, null, error,
+                legacy ? LocalDateTime.now() : null);
+    }
+}
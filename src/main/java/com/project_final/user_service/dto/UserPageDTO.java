@@ -0,0 +1,37 @@
+package com.project_final.user_service.dto;
+
+
+import java.util.List;
+
+/**
+ * Página de usuarios paginada por cursor (keyset sobre el ID)
+ */
+public class UserPageDTO {
+
+    private final List<UserDTO> items;
+    private final String nextCursor;
+    private final int limit;
+
+    public UserPageDTO(List<UserDTO> items, String nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    public List<UserDTO> getItems() {
+        return items;
+    }
+
+    // Cursor opaco para pedir la siguiente página (null si no hay más)
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.project_final.user_service.dto;
+
+import com.project_final.user_service.model.User;
+
+/**
+ * Datos que un cliente puede enviar al crear o modificar un usuario. El ID, la versión y las
+ * fechas los asigna el servidor, así que cualquier otro campo del JSON se ignora
+ */
+public record UserRequestDTO(String name, String email) {
+
+    public User toUser() {
+        return new User(name, email);
+    }
+}
@@ -0,0 +1,9 @@
+package com.project_final.user_service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión y fecha de modificación de un usuario, lo necesario para ETag y Last-Modified
+ */
+public record UserVersionDTO(Long version, LocalDateTime updatedAt) {
+}
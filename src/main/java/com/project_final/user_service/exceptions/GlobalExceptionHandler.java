@@ -1,7 +1,9 @@
 package com.project_final.user_service.exceptions;
 
+import com.project_final.user_service.config.ErrorMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -16,6 +18,9 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    @Autowired
+    private ErrorMetrics errorMetrics;
+
     /**
      * Maneja UserNotFoundException
      */
@@ -25,6 +30,8 @@ public class GlobalExceptionHandler {
 
         logger.warn("Usuario no encontrado: {}", ex.getMessage());
 
+        errorMetrics.record(ex);
+
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getErrorCode(),
                 ex.getMessage(),
@@ -45,6 +52,8 @@ public class GlobalExceptionHandler {
 
         logger.warn("Usuario ya existe: {}", ex.getMessage());
 
+        errorMetrics.record(ex);
+
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getErrorCode(),
                 ex.getMessage(),
@@ -65,6 +74,8 @@ public class GlobalExceptionHandler {
 
         logger.warn("Error de validación: {}", ex.getMessage());
 
+        errorMetrics.record(ex);
+
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getErrorCode(),
                 ex.getMessage(),
@@ -76,6 +87,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja UserPreconditionFailedException
+     */
+    @ExceptionHandler(UserPreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handleUserPreconditionFailedException(
+            UserPreconditionFailedException ex, WebRequest request) {
+
+        logger.warn("Precondición no cumplida: {}", ex.getMessage());
+
+        errorMetrics.record(ex);
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                "El usuario ha cambiado desde la versión indicada en If-Match",
+                request.getDescription(false),
+                HttpStatus.PRECONDITION_FAILED.value()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
     /**
      * Maneja OrderServiceException
      */
@@ -85,6 +118,8 @@ public class GlobalExceptionHandler {
 
         logger.error("Error en servicio de órdenes: {}", ex.getMessage(), ex);
 
+        errorMetrics.record(ex);
+
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getErrorCode(),
                 "Error al obtener información de órdenes",
@@ -105,6 +140,8 @@ public class GlobalExceptionHandler {
 
         logger.error("Error del servicio de usuarios: {}", ex.getMessage(), ex);
 
+        errorMetrics.record(ex);
+
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getErrorCode() != null ? ex.getErrorCode() : "USER_SERVICE_ERROR",
                 ex.getMessage(),
@@ -125,6 +162,8 @@ public class GlobalExceptionHandler {
 
         logger.error("Error inesperado: {}", ex.getMessage(), ex);
 
+        errorMetrics.record(ex);
+
         ErrorResponse errorResponse = new ErrorResponse(
                 "INTERNAL_SERVER_ERROR",
                 "Ha ocurrido un error interno",
@@ -0,0 +1,18 @@
+package com.project_final.user_service.exceptions;
+
+/**
+ * Excepción lanzada cuando la versión indicada en If-Match no es la actual del usuario
+ */
+public class UserPreconditionFailedException extends UserServiceException {
+
+    private static final String DEFAULT_ERROR_CODE = "USER_PRECONDITION_FAILED";
+
+    public UserPreconditionFailedException(String message) {
+        super(message, DEFAULT_ERROR_CODE);
+    }
+
+    public UserPreconditionFailedException(Long userId, Long expectedVersion, Long currentVersion) {
+        super("El usuario con ID " + userId + " está en la versión " + currentVersion
+                + " y se esperaba la " + expectedVersion, DEFAULT_ERROR_CODE);
+    }
+}
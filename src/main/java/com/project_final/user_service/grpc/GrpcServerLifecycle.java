@@ -0,0 +1,86 @@
+package com.project_final.user_service.grpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerServiceDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor gRPC (HTTP/2 sobre Netty) en su propio puerto, dentro del mismo
+ * proceso que Tomcat. Arranca con el contexto y al parar deja terminar las
+ * llamadas en curso durante el periodo de gracia antes de cortarlas.
+ */
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final ServerServiceDefinition service;
+    private final int port;
+    private final Duration shutdownGracePeriod;
+    private final Executor executor;
+
+    private volatile Server server;
+
+    // service ya con sus interceptores; executor null = pool por defecto de gRPC
+    public GrpcServerLifecycle(ServerServiceDefinition service, int port, Duration shutdownGracePeriod, Executor executor) {
+        this.service = service;
+        this.port = port;
+        this.shutdownGracePeriod = shutdownGracePeriod;
+        this.executor = executor;
+    }
+
+    @Override
+    public void start() {
+        ServerBuilder<?> builder = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(service);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo arrancar el servidor gRPC en el puerto " + port, e);
+        }
+        logger.info("Servidor gRPC escuchando en el puerto {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Llamadas gRPC sin terminar tras {}, se cancelan", shutdownGracePeriod);
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // Puerto real (útil con user.grpc.port=0); -1 si no está arrancado
+    public int getPort() {
+        Server current = server;
+        return current == null ? -1 : current.getPort();
+    }
+}
@@ -0,0 +1,181 @@
+package com.project_final.user_service.grpc;
+
+import com.project_final.user_service.config.ErrorMetrics;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupRequestDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.exceptions.OrderServiceException;
+import com.project_final.user_service.exceptions.UserNotFoundException;
+import com.project_final.user_service.exceptions.UserValidationException;
+import com.project_final.user_service.grpc.v1.BatchGetUsersRequest;
+import com.project_final.user_service.grpc.v1.BatchGetUsersResponse;
+import com.project_final.user_service.grpc.v1.GetUserOrdersRequest;
+import com.project_final.user_service.grpc.v1.GetUserOrdersResponse;
+import com.project_final.user_service.grpc.v1.GetUserRequest;
+import com.project_final.user_service.grpc.v1.ListUsersRequest;
+import com.project_final.user_service.grpc.v1.User;
+import com.project_final.user_service.grpc.v1.UserLookupServiceGrpc;
+import com.project_final.user_service.service.UserService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Implementación de UserLookupService sobre UserService: mismas cachés y
+ * validaciones que la API REST (los límites de concurrencia los aplica
+ * ConcurrencyLimitServerInterceptor). Las excepciones del servicio se
+ * traducen al código gRPC equivalente al estado HTTP de GlobalExceptionHandler.
+ */
+public class UserLookupGrpcService extends UserLookupServiceGrpc.UserLookupServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLookupGrpcService.class);
+
+    private final UserService userService;
+    private final ErrorMetrics errorMetrics;
+
+    public UserLookupGrpcService(UserService userService, ErrorMetrics errorMetrics) {
+        this.userService = userService;
+        this.errorMetrics = errorMetrics;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<User> responseObserver) {
+        try {
+            com.project_final.user_service.model.User user = userService.getUserById(request.getId())
+                    .orElseThrow(() -> new UserNotFoundException(request.getId()));
+            responseObserver.onNext(UserProtoMapper.toProto(user));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    @Override
+    public void batchGetUsers(BatchGetUsersRequest request, StreamObserver<BatchGetUsersResponse> responseObserver) {
+        try {
+            UserLookupRequestDTO lookup = new UserLookupRequestDTO(request.getIdsList(), request.getEmailsList());
+            responseObserver.onNext(UserProtoMapper.toProto(userService.lookupUsers(lookup)));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    @Override
+    public void listUsers(ListUsersRequest request, StreamObserver<User> responseObserver) {
+        ServerCallStreamObserver<User> observer = (ServerCallStreamObserver<User>) responseObserver;
+        UserStream stream = new UserStream(request, observer);
+        observer.setOnCancelHandler(stream::cancel);
+        observer.setOnReadyHandler(stream::drain);
+        // Si la llamada ya admite mensajes no habrá transición a "ready": se empieza aquí
+        stream.drain();
+    }
+
+    @Override
+    public void getUserOrders(GetUserOrdersRequest request, StreamObserver<GetUserOrdersResponse> responseObserver) {
+        try {
+            responseObserver.onNext(UserProtoMapper.toProto(userService.getUserOrdersWithFreshness(request.getUserId())));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    // Código gRPC equivalente al estado HTTP que devuelve la API REST
+    StatusRuntimeException toStatus(RuntimeException error) {
+        errorMetrics.record(error);
+        if (error instanceof UserNotFoundException) {
+            return Status.NOT_FOUND.withDescription(error.getMessage()).asRuntimeException();
+        }
+        if (error instanceof UserValidationException) {
+            return Status.INVALID_ARGUMENT.withDescription(error.getMessage()).asRuntimeException();
+        }
+        if (error instanceof OrderServiceException) {
+            return Status.UNAVAILABLE.withDescription(error.getMessage()).asRuntimeException();
+        }
+        logger.error("Error inesperado en la API gRPC: {}", error.getMessage(), error);
+        return Status.INTERNAL.withDescription("Error interno del servidor").asRuntimeException();
+    }
+
+    /**
+     * Recorrido de ListUsers con control de flujo: solo se envía mientras el
+     * cliente tiene ventana (isReady) y la siguiente página se lee cuando la
+     * actual se ha enviado, así un cliente lento no acumula usuarios en memoria.
+     * gRPC serializa los callbacks de la llamada, por lo que no hace falta
+     * sincronizar.
+     */
+    private class UserStream {
+
+        private final ServerCallStreamObserver<User> observer;
+        private final Integer pageSize;
+        private final int maxUsers;
+
+        private Iterator<UserDTO> pending = Collections.emptyIterator();
+        private String cursor;
+        private boolean lastPage;
+        private boolean finished;
+        private int sent;
+
+        UserStream(ListUsersRequest request, ServerCallStreamObserver<User> observer) {
+            this.observer = observer;
+            this.cursor = request.getCursor().isEmpty() ? null : request.getCursor();
+            // 0 = tamaño por defecto; los negativos los rechaza UserService
+            this.pageSize = request.getPageSize() == 0 ? null : request.getPageSize();
+            this.maxUsers = request.getMaxUsers();
+        }
+
+        void drain() {
+            try {
+                while (!finished && observer.isReady()) {
+                    if (!pending.hasNext()) {
+                        if (lastPage) {
+                            complete();
+                            return;
+                        }
+                        fetchPage();
+                        continue;
+                    }
+                    observer.onNext(UserProtoMapper.toProto(pending.next()));
+                    sent++;
+                    if (maxUsers > 0 && sent >= maxUsers) {
+                        complete();
+                    }
+                }
+            } catch (RuntimeException e) {
+                finished = true;
+                observer.onError(toStatus(e));
+            }
+        }
+
+        void cancel() {
+            finished = true;
+            logger.debug("ListUsers cancelado por el cliente tras enviar {} usuarios", sent);
+        }
+
+        private void fetchPage() {
+            UserPageDTO page = userService.getUsersPage(cursor, pageSizeForNextPage());
+            pending = page.getItems().iterator();
+            cursor = page.getNextCursor();
+            lastPage = cursor == null;
+        }
+
+        // Con max_users no se piden más filas de las que quedan por enviar
+        private Integer pageSizeForNextPage() {
+            if (maxUsers <= 0 || pageSize == null || pageSize < 1) {
+                return pageSize;
+            }
+            return Math.min(pageSize, maxUsers - sent);
+        }
+
+        private void complete() {
+            finished = true;
+            observer.onCompleted();
+        }
+    }
+}
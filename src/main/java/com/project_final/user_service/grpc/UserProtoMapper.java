@@ -0,0 +1,122 @@
+package com.project_final.user_service.grpc;
+
+import com.google.protobuf.Timestamp;
+import com.project_final.user_service.dto.CachedOrdersDTO;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.grpc.v1.BatchGetUsersResponse;
+import com.project_final.user_service.grpc.v1.GetUserOrdersResponse;
+import com.project_final.user_service.grpc.v1.Order;
+import com.project_final.user_service.model.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversión de entidades y DTOs a los mensajes de user_lookup.proto.
+ * Los campos null se dejan sin asignar (protobuf no admite null).
+ */
+final class UserProtoMapper {
+
+    private UserProtoMapper() {
+    }
+
+    static com.project_final.user_service.grpc.v1.User toProto(User user) {
+        com.project_final.user_service.grpc.v1.User.Builder builder = userBuilder(
+                user.getId(), user.getName(), user.getEmail(), user.getCreatedAt(), user.getUpdatedAt());
+        if (user.getVersion() != null) {
+            builder.setVersion(user.getVersion());
+        }
+        return builder.build();
+    }
+
+    static com.project_final.user_service.grpc.v1.User toProto(UserDTO user) {
+        return userBuilder(user.id(), user.name(), user.email(), user.createdAt(), user.updatedAt()).build();
+    }
+
+    static BatchGetUsersResponse toProto(UserLookupResultDTO result) {
+        BatchGetUsersResponse.Builder builder = BatchGetUsersResponse.newBuilder()
+                .addAllMissingIds(result.getMissingIds())
+                .addAllMissingEmails(result.getMissingEmails());
+        result.getById().forEach((id, user) -> builder.putById(id, toProto(user)));
+        result.getByEmail().forEach((email, user) -> builder.putByEmail(email, toProto(user)));
+        return builder.build();
+    }
+
+    static GetUserOrdersResponse toProto(CachedOrdersDTO cached) {
+        GetUserOrdersResponse.Builder builder = GetUserOrdersResponse.newBuilder()
+                .setStale(cached.isStale());
+        if (cached.getFetchedAt() != null) {
+            builder.setFetchedAt(toTimestamp(cached.getFetchedAt()));
+        }
+        for (OrderDTO order : cached.getOrders()) {
+            builder.addOrders(toProto(order));
+        }
+        return builder.build();
+    }
+
+    static Order toProto(OrderDTO order) {
+        Order.Builder builder = Order.newBuilder();
+        if (order.getId() != null) {
+            builder.setId(order.getId());
+        }
+        if (order.getUserId() != null) {
+            builder.setUserId(order.getUserId());
+        }
+        if (order.getStatus() != null) {
+            builder.setStatus(order.getStatus());
+        }
+        // Texto y no double para no perder precisión en los importes
+        if (order.getTotalAmount() != null) {
+            builder.setTotalAmount(order.getTotalAmount().toPlainString());
+        }
+        if (order.getCreatedAt() != null) {
+            builder.setCreatedAt(toTimestamp(order.getCreatedAt()));
+        }
+        if (order.getUpdatedAt() != null) {
+            builder.setUpdatedAt(toTimestamp(order.getUpdatedAt()));
+        }
+        if (order.getDescription() != null) {
+            builder.setDescription(order.getDescription());
+        }
+        if (order.getQuantity() != null) {
+            builder.setQuantity(order.getQuantity());
+        }
+        return builder.build();
+    }
+
+    // Las fechas del servicio son locales: se interpretan en la zona horaria de la JVM
+    static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return toTimestamp(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+
+    private static com.project_final.user_service.grpc.v1.User.Builder userBuilder(
+            Long id, String name, String email, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        com.project_final.user_service.grpc.v1.User.Builder builder = com.project_final.user_service.grpc.v1.User.newBuilder();
+        if (id != null) {
+            builder.setId(id);
+        }
+        if (name != null) {
+            builder.setName(name);
+        }
+        if (email != null) {
+            builder.setEmail(email);
+        }
+        if (createdAt != null) {
+            builder.setCreatedAt(toTimestamp(createdAt));
+        }
+        if (updatedAt != null) {
+            builder.setUpdatedAt(toTimestamp(updatedAt));
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,116 @@
+package com.project_final.user_service.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de concurrencia adaptativo (AIMD) para un grupo de endpoints.
+ * Cada respuesta rápida y correcta sube el límite 1/límite (un permiso más
+ * por cada "ventana" completa); una respuesta lenta (por encima del umbral
+ * de latencia) o un error del servidor lo multiplica por backoffRatio, como
+ * mucho una vez por umbral para que una ráfaga de respuestas lentas no lo
+ * hunda de golpe. Lo que supera el límite se rechaza en lugar de esperar.
+ */
+public class AdaptiveConcurrencyLimit implements MeterBinder {
+
+    private final String group;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    // Protegidos por this; currentLimit es la copia entera que lee tryAcquire
+    private double limit;
+    private long lastDecreaseNanos;
+    private volatile int currentLimit;
+
+    public AdaptiveConcurrencyLimit(String group, int initialLimit, int minLimit, int maxLimit,
+                                    Duration latencyThreshold, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Configuración del límite de concurrencia no válida: " + group);
+        }
+        this.group = group;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.currentLimit = (int) limit;
+        this.lastDecreaseNanos = System.nanoTime() - latencyThresholdNanos;
+    }
+
+    // Ocupar un permiso; false si ya hay tantas peticiones en curso como permite el límite
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Devolver el permiso con la latencia observada; dropped = error del servidor o excepción
+    public void release(long latencyNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        onSample(latencyNanos, dropped, inFlightBefore);
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean dropped, int inFlightBefore) {
+        long now = System.nanoTime();
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            if (now - lastDecreaseNanos >= latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if (inFlightBefore * 2 >= limit) {
+            // Solo crece si el límite se estaba usando: con poca carga la latencia no dice nada
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        currentLimit = (int) limit;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.concurrency.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .description("Peticiones simultáneas admitidas en este momento")
+                .tag("group", group)
+                .register(registry);
+        Gauge.builder("users.concurrency.in-flight", this, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Peticiones en curso")
+                .tag("group", group)
+                .register(registry);
+        FunctionCounter.builder("users.concurrency.rejected", this, AdaptiveConcurrencyLimit::getRejected)
+                .description("Peticiones rechazadas con 503 por superar el límite")
+                .tag("group", group)
+                .register(registry);
+    }
+}
@@ -0,0 +1,94 @@
+package com.project_final.user_service.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.exceptions.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Aplica los límites de concurrencia a la API de usuarios: uno para los
+ * endpoints que dependen de Order Service, otro para las operaciones masivas
+ * (carga en bloque y búsqueda múltiple, con un umbral de latencia acorde a su
+ * tamaño) y otro para el resto, que solo usan la base de datos, de modo que la
+ * degradación o la lentitud normal de uno no arrastre a los demás.
+ * Si no hay permiso se responde 503 con Retry-After sin encolar la petición.
+ * La exportación NDJSON queda fuera: su duración depende del volumen, no de
+ * la saturación.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern ORDER_SERVICE_PATHS = Pattern.compile("/api/users/[^/]+/orders/?");
+    private static final Pattern BULK_PATHS = Pattern.compile("/api/users/(batch|lookup)/?");
+    private static final Pattern UNLIMITED_PATHS = Pattern.compile("/api/users/export/?");
+
+    private final AdaptiveConcurrencyLimit databaseLimit;
+    private final AdaptiveConcurrencyLimit orderServiceLimit;
+    private final AdaptiveConcurrencyLimit bulkLimit;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit databaseLimit, AdaptiveConcurrencyLimit orderServiceLimit,
+                                  AdaptiveConcurrencyLimit bulkLimit, Duration retryAfter, ObjectMapper objectMapper) {
+        this.databaseLimit = databaseLimit;
+        this.orderServiceLimit = orderServiceLimit;
+        this.bulkLimit = bulkLimit;
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = limitFor(request);
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            reject(request, response, limit);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (UNLIMITED_PATHS.matcher(path).matches()) {
+            return null;
+        }
+        if (BULK_PATHS.matcher(path).matches()) {
+            return bulkLimit;
+        }
+        return ORDER_SERVICE_PATHS.matcher(path).matches() ? orderServiceLimit : databaseLimit;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, AdaptiveConcurrencyLimit limit)
+            throws IOException {
+        ErrorResponse error = new ErrorResponse("SERVICE_OVERLOADED", "Servicio saturado, reintente más tarde",
+                "Límite de concurrencia alcanzado (" + limit.getGroup() + ": " + limit.getLimit() + ")",
+                "uri=" + request.getRequestURI(), HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,116 @@
+package com.project_final.user_service.limit;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Equivalente gRPC de ConcurrencyLimitFilter: comparte los mismos límites
+ * (Order Service para GetUserOrders, operaciones masivas para BatchGetUsers y
+ * base de datos para el resto) y, si no hay permiso, cierra la llamada con
+ * UNAVAILABLE y el trailer retry-after sin encolarla. Las llamadas con respuesta en streaming quedan fuera, como la
+ * exportación NDJSON: su duración depende del volumen, no de la saturación.
+ */
+public class ConcurrencyLimitServerInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> RETRY_AFTER = Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final String ORDER_SERVICE_METHOD = "GetUserOrders";
+    private static final String BULK_METHOD = "BatchGetUsers";
+
+    // Códigos que corresponden a un 5xx en la API REST
+    private static final Set<Status.Code> DROPPED_CODES = EnumSet.of(Status.Code.UNKNOWN, Status.Code.INTERNAL,
+            Status.Code.UNAVAILABLE, Status.Code.DATA_LOSS, Status.Code.DEADLINE_EXCEEDED);
+
+    private final AdaptiveConcurrencyLimit databaseLimit;
+    private final AdaptiveConcurrencyLimit orderServiceLimit;
+    private final AdaptiveConcurrencyLimit bulkLimit;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitServerInterceptor(AdaptiveConcurrencyLimit databaseLimit,
+                                             AdaptiveConcurrencyLimit orderServiceLimit,
+                                             AdaptiveConcurrencyLimit bulkLimit, Duration retryAfter) {
+        this.databaseLimit = databaseLimit;
+        this.orderServiceLimit = orderServiceLimit;
+        this.bulkLimit = bulkLimit;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                       ServerCallHandler<Q, R> next) {
+        AdaptiveConcurrencyLimit limit = limitFor(call.getMethodDescriptor());
+        if (limit == null) {
+            return next.startCall(call, headers);
+        }
+        if (!limit.tryAcquire()) {
+            Metadata trailers = new Metadata();
+            trailers.put(RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+            call.close(Status.UNAVAILABLE.withDescription("Servicio saturado, reintente más tarde (límite "
+                    + limit.getGroup() + ": " + limit.getLimit() + ")"), trailers);
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        Permit permit = new Permit(limit);
+        try {
+            ServerCall.Listener<Q> listener = next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+                @Override
+                public void close(Status status, Metadata trailers) {
+                    permit.release(DROPPED_CODES.contains(status.getCode()));
+                    super.close(status, trailers);
+                }
+            }, headers);
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+                @Override
+                public void onCancel() {
+                    // El cliente abandonó la llamada: no dice nada de la saturación del servidor
+                    permit.release(false);
+                    super.onCancel();
+                }
+            };
+        } catch (RuntimeException e) {
+            permit.release(true);
+            throw e;
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(MethodDescriptor<?, ?> method) {
+        if (!method.getType().serverSendsOneMessage()) {
+            return null;
+        }
+        return switch (method.getBareMethodName()) {
+            case ORDER_SERVICE_METHOD -> orderServiceLimit;
+            case BULK_METHOD -> bulkLimit;
+            default -> databaseLimit;
+        };
+    }
+
+    // Un permiso por llamada: close y onCancel pueden llegar ambos, solo el primero lo devuelve
+    private static final class Permit {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        private void release(boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+}
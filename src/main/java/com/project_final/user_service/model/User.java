@@ -1,12 +1,11 @@
 package com.project_final.user_service.model;
 
 import jakarta.persistence.*;
-import lombok.Data;
 import java.time.LocalDateTime;
 
-@Data
 @Entity
-@Table(name = "users")
+// El índice (updated_at, id) sirve el feed de cambios sin recorrer la tabla
+@Table(name = "users", indexes = @Index(name = "idx_users_updated_at_id", columnList = "updated_at, id"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +23,11 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Control de concurrencia optimista: cada UPDATE comprueba e incrementa la versión
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // Constructores
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -79,6 +83,22 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+
+    // Las fechas las fija el servidor al insertar, aunque la entidad llegue con otros valores
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
 
     @PreUpdate
     protected void onUpdate() {
@@ -0,0 +1,99 @@
+package com.project_final.user_service.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de cambio de un usuario guardado en el outbox (tabla user_outbox)
+ * dentro de la misma transacción que la escritura. El relay lo publica y
+ * después lo borra; el ID autoincremental fija el orden de publicación.
+ */
+@Entity
+@Table(name = "user_outbox")
+public class UserChangeEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private Type type;
+
+    // Estado del usuario tras el cambio (vacío en las bajas)
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "user_version")
+    private Long version;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public UserChangeEvent() {
+    }
+
+    public UserChangeEvent(Long userId, Type type, String name, String email, Long version, LocalDateTime occurredAt) {
+        this.userId = userId;
+        this.type = type;
+        this.name = name;
+        this.email = email;
+        this.version = version;
+        this.occurredAt = occurredAt;
+    }
+
+    public static UserChangeEvent created(User user) {
+        return of(Type.CREATED, user);
+    }
+
+    public static UserChangeEvent updated(User user) {
+        return of(Type.UPDATED, user);
+    }
+
+    public static UserChangeEvent deleted(Long userId) {
+        return new UserChangeEvent(userId, Type.DELETED, null, null, null, LocalDateTime.now());
+    }
+
+    private static UserChangeEvent of(Type type, User user) {
+        return new UserChangeEvent(user.getId(), type, user.getName(), user.getEmail(), user.getVersion(),
+                LocalDateTime.now());
+    }
+
+    // GETTERS
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
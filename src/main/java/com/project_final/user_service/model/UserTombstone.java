@@ -0,0 +1,59 @@
+package com.project_final.user_service.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de un usuario eliminado para el feed de cambios: la fila de users
+ * desaparece con la baja, así que los consumidores que replican la tabla
+ * se enteran por aquí. Se conserva durante user.changes.tombstone-retention.
+ */
+@Entity
+@Table(name = "user_tombstones", indexes = @Index(name = "idx_user_tombstones_deleted_at", columnList = "deleted_at, user_id"))
+public class UserTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    // El ID lo asigna la baja, no la base de datos: sin esto save() haría un SELECT antes del INSERT
+    @Transient
+    private boolean isNew = true;
+
+    public UserTombstone() {
+    }
+
+    public UserTombstone(Long userId, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,42 @@
+package com.project_final.user_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.model.UserChangeEvent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino en fichero: añade cada lote como líneas NDJSON (un evento por
+ * línea) al final del fichero configurado.
+ */
+public class FileUserChangeEventSink implements UserChangeEventSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileUserChangeEventSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<UserChangeEvent> events) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (UserChangeEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,44 @@
+package com.project_final.user_service.outbox;
+
+import com.project_final.user_service.model.UserChangeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Destino en memoria para desarrollo y pruebas: guarda los últimos eventos
+ * publicados (los más antiguos se descartan al llenarse) hasta que se leen
+ * con drain.
+ */
+public class InMemoryUserChangeEventSink implements UserChangeEventSink {
+
+    private final int capacity;
+    private final Deque<UserChangeEvent> events = new ArrayDeque<>();
+
+    public InMemoryUserChangeEventSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<UserChangeEvent> batch) {
+        for (UserChangeEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    // Devolver y vaciar los eventos recibidos, en orden de publicación
+    public synchronized List<UserChangeEvent> drain() {
+        List<UserChangeEvent> drained = new ArrayList<>(events);
+        events.clear();
+        return drained;
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+}
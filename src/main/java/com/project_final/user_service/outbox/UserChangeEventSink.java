@@ -0,0 +1,17 @@
+package com.project_final.user_service.outbox;
+
+import com.project_final.user_service.model.UserChangeEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino de los eventos de cambio que publica el relay del outbox.
+ * Si publish lanza una excepción el lote completo se vuelve a enviar más
+ * tarde, así que un destino puede recibir eventos repetidos (al menos una
+ * vez) pero nunca desordenados para un mismo usuario.
+ */
+public interface UserChangeEventSink {
+
+    void publish(List<UserChangeEvent> events) throws IOException;
+}
@@ -0,0 +1,135 @@
+package com.project_final.user_service.outbox;
+
+import com.project_final.user_service.model.UserChangeEvent;
+import com.project_final.user_service.repositories.UserChangeEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica los eventos del outbox en lotes, del más antiguo al más reciente.
+ * Cada lote se borra solo después de publicarse: si el destino falla (o el
+ * proceso se detiene entre ambos pasos) se reenvía en la siguiente pasada,
+ * de modo que la entrega es al menos una vez y en orden por usuario.
+ * <p>
+ * Lectura, publicación y borrado de cada lote van en una transacción que
+ * mantiene bloqueadas sus filas; si el relay está activo en varias
+ * instancias, las demás no publican mientras tanto. Desactivado por defecto
+ * (user.outbox.relay.enabled): al activarlo hay que configurar un destino.
+ */
+@Component
+@ConditionalOnProperty(name = "user.outbox.relay.enabled", havingValue = "true")
+public class UserOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOutboxRelay.class);
+
+    private final UserChangeEventRepository repository;
+    private final UserChangeEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Timer lag;
+    private final Counter published;
+    private final Counter failures;
+
+    // Momento del evento pendiente más antiguo visto en la última lectura (null = outbox vacío)
+    private volatile LocalDateTime oldestPending;
+
+    public UserOutboxRelay(UserChangeEventRepository repository, UserChangeEventSink sink,
+                           TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                           @Value("${user.outbox.relay.batch-size:500}") int batchSize,
+                           @Value("${user.outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.repository = repository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lag = Timer.builder("users.outbox.lag")
+                .description("Tiempo entre la escritura del usuario y la publicación de su evento")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.published = Counter.builder("users.outbox.published")
+                .description("Eventos de cambio publicados")
+                .register(meterRegistry);
+        this.failures = Counter.builder("users.outbox.publish-failures")
+                .description("Lotes que el destino no aceptó y se reintentarán")
+                .register(meterRegistry);
+        TimeGauge.builder("users.outbox.oldest-pending", this, TimeUnit.MILLISECONDS, UserOutboxRelay::oldestPendingMillis)
+                .description("Antigüedad del evento pendiente más antiguo")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${user.outbox.relay.interval:PT1S}",
+            fixedDelayString = "${user.outbox.relay.interval:PT1S}")
+    public void relay() {
+        relayPending();
+    }
+
+    // Publicar lotes hasta vaciar el outbox o llegar al máximo por pasada; devuelve los eventos publicados
+    public synchronized int relayPending() {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int relayed;
+            try {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } catch (PessimisticLockingFailureException e) {
+                logger.debug("Otra instancia está publicando el outbox, se reintentará en la siguiente pasada");
+                break;
+            }
+            total += Math.max(relayed, 0);
+            if (relayed < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    // Publicar y borrar el lote más antiguo; -1 si el destino falla (el lote sigue en el outbox)
+    private int relayBatch() {
+        List<UserChangeEvent> batch = repository.lockOldest(PageRequest.of(0, batchSize));
+        oldestPending = batch.isEmpty() ? null : batch.get(0).getOccurredAt();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            sink.publish(batch);
+        } catch (Exception e) {
+            failures.increment();
+            logger.warn("No se pudo publicar un lote de {} eventos de usuario, se reintentará: {}",
+                    batch.size(), e.getMessage());
+            return -1;
+        }
+
+        // Se borran los IDs publicados, no un rango: una transacción aún abierta puede confirmar un ID menor
+        repository.deleteAllByIdInBatch(batch.stream().map(UserChangeEvent::getId).toList());
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(event -> lag.record(Duration.between(event.getOccurredAt(), now)));
+        published.increment(batch.size());
+        if (batch.size() < batchSize) {
+            oldestPending = null;
+        }
+        return batch.size();
+    }
+
+    private double oldestPendingMillis() {
+        LocalDateTime oldest = oldestPending;
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis());
+    }
+}
@@ -0,0 +1,105 @@
+package com.project_final.user_service.repositories;
+
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.model.UserChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escrituras masivas de usuarios con batching JDBC real.
+ * Hibernate no puede agrupar inserts con IDs IDENTITY, así que estas
+ * operaciones van directamente por JDBC y recuperan las claves generadas
+ * de cada lote.
+ */
+@Repository
+public class UserBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (name, email, created_at, updated_at) VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_BY_EMAIL_SQL =
+            "UPDATE users SET name = ?, updated_at = ?, version = version + 1 WHERE email = ?";
+
+    private static final String INSERT_CHANGE_EVENT_SQL =
+            "INSERT INTO user_outbox (user_id, event_type, name, email, user_version, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Número de sentencias enviadas en cada executeBatch
+    @Value("${user.batch.jdbc-batch-size:500}")
+    private int batchSize;
+
+    // Inserta los usuarios en lotes y devuelve los IDs generados en el mismo orden
+    public List<Long> insertAll(List<User> users, LocalDateTime now) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(users.size());
+            Timestamp timestamp = Timestamp.valueOf(now);
+
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                int pending = 0;
+                for (User user : users) {
+                    ps.setString(1, user.getName());
+                    ps.setString(2, user.getEmail());
+                    ps.setTimestamp(3, timestamp);
+                    ps.setTimestamp(4, timestamp);
+                    ps.addBatch();
+
+                    if (++pending == batchSize) {
+                        executeAndCollectKeys(ps, ids);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    executeAndCollectKeys(ps, ids);
+                }
+            }
+            return ids;
+        });
+    }
+
+    // Actualiza nombre y fecha de modificación de los usuarios identificados por su email (y su versión,
+    // para que las escrituras JPA concurrentes detecten el cambio)
+    public void updateAllByEmail(List<User> users, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(UPDATE_BY_EMAIL_SQL, users, batchSize, (ps, user) -> {
+            ps.setString(1, user.getName());
+            ps.setTimestamp(2, timestamp);
+            ps.setString(3, user.getEmail());
+        });
+    }
+
+    // Registra en el outbox los eventos de cambio de una carga masiva (misma transacción que la carga)
+    public void insertChangeEvents(List<UserChangeEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_CHANGE_EVENT_SQL, events, batchSize, (ps, event) -> {
+            ps.setLong(1, event.getUserId());
+            ps.setString(2, event.getType().name());
+            ps.setString(3, event.getName());
+            ps.setString(4, event.getEmail());
+            ps.setObject(5, event.getVersion(), Types.BIGINT);
+            ps.setTimestamp(6, Timestamp.valueOf(event.getOccurredAt()));
+        });
+    }
+
+    private void executeAndCollectKeys(PreparedStatement ps, List<Long> ids) throws SQLException {
+        ps.executeBatch();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+    }
+}
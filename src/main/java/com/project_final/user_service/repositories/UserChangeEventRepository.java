@@ -0,0 +1,29 @@
+package com.project_final.user_service.repositories;
+
+import com.project_final.user_service.model.UserChangeEvent;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Outbox de eventos de cambio de usuarios
+@Repository
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    // Eventos pendientes más antiguos en orden de inserción, bloqueados hasta el final de la transacción
+    // (FOR UPDATE NOWAIT): si otra instancia tiene bloqueada la cabeza del outbox falla en el acto en
+    // lugar de esperar o saltársela, así solo publica una a la vez y se conserva el orden por usuario.
+    // Transacción de escritura para leer siempre del primario
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT e FROM UserChangeEvent e ORDER BY e.id")
+    List<UserChangeEvent> lockOldest(Pageable pageable);
+}
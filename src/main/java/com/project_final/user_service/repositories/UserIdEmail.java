@@ -0,0 +1,11 @@
+package com.project_final.user_service.repositories;
+
+/**
+ * Proyección mínima de un usuario: solo ID y email
+ */
+public interface UserIdEmail {
+
+    Long getId();
+
+    String getEmail();
+}
@@ -1,28 +1,84 @@
 package com.project_final.user_service.repositories;
 
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserVersionDTO;
 import com.project_final.user_service.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Las consultas declaradas aquí son de solo lectura (flush MANUAL y sin snapshots) salvo las @Modifying;
+// save/delete mantienen la transacción de escritura de SimpleJpaRepository
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
 
     // Buscar usuario por email
     Optional<User> findByEmail(String email);
 
-    // Verificar si existe un usuario con ese email
-    boolean existsByEmail(String email);
+    // Usuarios cuyos emails están en la lista
+    List<User> findByEmailIn(Collection<String> emails);
 
-    // Buscar usuarios por nombre (contiene el texto)
-    List<User> findByNameContaining(String name);
+    // ID y email de los usuarios cuyos emails están en la lista (una sola consulta IN)
+    List<UserIdEmail> findIdAndEmailByEmailIn(Collection<String> emails);
 
     // Buscar usuarios por nombre exacto
     List<User> findByName(String name);
 
+    // Lecturas con proyección en UserDTO: no crean entidades gestionadas ni snapshots en el contexto de persistencia
+
+    // Todos los usuarios (listado sin paginar)
+    @Query("SELECT new com.project_final.user_service.dto.UserDTO(u.id, u.name, u.email, u.createdAt, u.updatedAt) "
+            + "FROM User u ORDER BY u.id")
+    List<UserDTO> findAllViews();
+
+    // Página de usuarios a continuación de un ID
+    @Query("SELECT new com.project_final.user_service.dto.UserDTO(u.id, u.name, u.email, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDTO> findViewsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Usuarios creados o modificados después de la posición (updatedAt, id) y no más recientes que until.
+    // La condición sobre updatedAt va primero para recorrer un rango del índice idx_users_updated_at_id
+    @Query("SELECT new com.project_final.user_service.dto.UserDTO(u.id, u.name, u.email, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.updatedAt >= :at AND (u.updatedAt > :at OR u.id > :afterId) "
+            + "AND u.updatedAt <= :until ORDER BY u.updatedAt, u.id")
+    List<UserDTO> findViewsChangedAfter(@Param("at") LocalDateTime at, @Param("afterId") Long afterId,
+                                        @Param("until") LocalDateTime until, Pageable pageable);
+
+    // Buscar por nombre con límite de resultados (solo mientras se carga el índice de búsqueda)
+    @Query("SELECT new com.project_final.user_service.dto.UserDTO(u.id, u.name, u.email, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.name LIKE CONCAT('%', :name, '%') ORDER BY u.id")
+    List<UserDTO> findViewsByNameContaining(@Param("name") String name, Pageable pageable);
+
+    // Versión y fecha de modificación de un usuario sin cargar la entidad (peticiones condicionales)
+    @Query("SELECT new com.project_final.user_service.dto.UserVersionDTO(u.version, u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<UserVersionDTO> findVersionById(@Param("id") Long id);
+
+    // Escrituras de una sola sentencia: devuelven las filas afectadas en lugar de leer antes de escribir
+
+    // Modificar nombre y email; con expectedVersion solo si el usuario sigue en esa versión
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.name = :name, u.email = :email, u.updatedAt = :updatedAt, u.version = u.version + 1 "
+            + "WHERE u.id = :id AND (:expectedVersion IS NULL OR u.version = :expectedVersion)")
+    int updateNameAndEmail(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+                           @Param("updatedAt") LocalDateTime updatedAt, @Param("expectedVersion") Long expectedVersion);
+
+    // Eliminar por ID sin cargar antes el usuario
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
     // Contar todos los usuarios (query personalizada)
     @Query("SELECT COUNT(u) FROM User u")
     Long countAllUsers();
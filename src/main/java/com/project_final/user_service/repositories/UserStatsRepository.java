@@ -0,0 +1,33 @@
+package com.project_final.user_service.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Estadísticas de la tabla de usuarios leídas del catálogo de MySQL.
+ */
+@Repository
+public class UserStatsRepository {
+
+    // Estimación que InnoDB mantiene a partir de muestreos; no recorre la tabla
+    private static final String ESTIMATED_ROWS_SQL =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Número aproximado de usuarios, vacío si la base de datos no ofrece la estimación
+    public OptionalLong estimateUserCount() {
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(ESTIMATED_ROWS_SQL, Long.class);
+            return rows.isEmpty() || rows.get(0) == null ? OptionalLong.empty() : OptionalLong.of(rows.get(0));
+        } catch (DataAccessException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
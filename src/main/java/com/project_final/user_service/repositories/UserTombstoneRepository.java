@@ -0,0 +1,31 @@
+package com.project_final.user_service.repositories;
+
+import com.project_final.user_service.model.UserTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Bajas de usuarios para el feed de cambios
+@Repository
+@Transactional(readOnly = true)
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    // Bajas posteriores a la posición (deletedAt, userId) y no más recientes que until, por el índice de deleted_at
+    @Query("SELECT t FROM UserTombstone t WHERE t.deletedAt >= :at AND (t.deletedAt > :at OR t.userId > :afterId) "
+            + "AND t.deletedAt <= :until ORDER BY t.deletedAt, t.userId")
+    List<UserTombstone> findDeletedAfter(@Param("at") LocalDateTime at, @Param("afterId") Long afterId,
+                                         @Param("until") LocalDateTime until, Pageable pageable);
+
+    // Purgar las bajas que ya superaron el periodo de retención
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,221 @@
+package com.project_final.user_service.search;
+
+import com.project_final.user_service.model.User;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas en memoria para buscar usuarios por subcadena
+ * del nombre (y opcionalmente del email) sin recorrer la tabla.
+ * <p>
+ * El texto se normaliza igual que compara MySQL (sin mayúsculas ni acentos). Una
+ * consulta de 3 o más caracteres solo examina los usuarios que contienen todos sus
+ * trigramas; las de 1 o 2 caracteres recorren los documentos en memoria.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ConcurrentMap<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Indexar (o reindexar) un usuario
+    public void index(Long id, String name, String email) {
+        if (id == null) {
+            return;
+        }
+        Doc doc = new Doc(normalize(name), normalize(email));
+        Doc previous = docs.put(id, doc);
+        Set<String> grams = doc.grams();
+        if (previous != null) {
+            for (String gram : previous.grams()) {
+                if (!grams.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+        }
+        grams.forEach(gram -> addPosting(gram, id));
+    }
+
+    public void index(User user) {
+        if (user != null) {
+            index(user.getId(), user.getName(), user.getEmail());
+        }
+    }
+
+    // Indexar durante la reconstrucción sin pisar cambios más recientes hechos en paralelo
+    public void load(Long id, String name, String email) {
+        if (id != null && !docs.containsKey(id)) {
+            index(id, name, email);
+        }
+    }
+
+    public void load(User user) {
+        if (user != null) {
+            load(user.getId(), user.getName(), user.getEmail());
+        }
+    }
+
+    public void remove(Long id) {
+        Doc previous = id != null ? docs.remove(id) : null;
+        if (previous != null) {
+            previous.grams().forEach(gram -> removePosting(gram, id));
+        }
+    }
+
+    // Marcar el índice como completo tras la carga inicial
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    // IDs de los usuarios que contienen el texto, de mejor a peor coincidencia
+    public List<Long> search(String query, int limit, boolean includeEmail) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Long id : candidates(q, includeEmail)) {
+            Doc doc = docs.get(id);
+            if (doc != null) {
+                int rank = doc.rank(q, includeEmail);
+                if (rank >= 0) {
+                    matches.add(new Match(id, rank, doc.name().length()));
+                }
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingInt(Match::rank)
+                        .thenComparingInt(Match::length)
+                        .thenComparing(Match::id))
+                .limit(limit)
+                .map(Match::id)
+                .toList();
+    }
+
+    public void clear() {
+        ready = false;
+        docs.clear();
+        postings.clear();
+    }
+
+    // Intersección de las listas de los trigramas de la consulta, empezando por la más corta
+    private Set<Long> candidates(String q, boolean includeEmail) {
+        if (q.length() < GRAM) {
+            return docs.keySet();
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(q)) {
+            Set<Long> ids = postings.getOrDefault(Doc.NAME_PREFIX + gram, Set.of());
+            if (includeEmail) {
+                ids = union(ids, postings.get(Doc.EMAIL_PREFIX + gram));
+            }
+            if (ids.isEmpty()) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private Set<Long> union(Set<Long> a, Set<Long> b) {
+        if (b == null || b.isEmpty()) {
+            return a;
+        }
+        if (a.isEmpty()) {
+            return b;
+        }
+        Set<Long> union = new HashSet<>(a);
+        union.addAll(b);
+        return union;
+    }
+
+    private void addPosting(String gram, Long id) {
+        postings.compute(gram, (key, ids) -> {
+            Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            set.add(id);
+            return set;
+        });
+    }
+
+    private void removePosting(String gram, Long id) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Doc(String name, String email) {
+
+        static final String NAME_PREFIX = "n:";
+        static final String EMAIL_PREFIX = "e:";
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            trigrams(name).forEach(gram -> grams.add(NAME_PREFIX + gram));
+            trigrams(email).forEach(gram -> grams.add(EMAIL_PREFIX + gram));
+            return grams;
+        }
+
+        // 0 nombre exacto, 1 prefijo, 2 inicio de palabra, 3 contiene, 4 solo en el email, -1 sin coincidencia
+        int rank(String q, boolean includeEmail) {
+            if (name.equals(q)) {
+                return 0;
+            }
+            if (name.startsWith(q)) {
+                return 1;
+            }
+            int at = name.indexOf(q);
+            if (at > 0) {
+                return Character.isLetterOrDigit(name.charAt(at - 1)) ? 3 : 2;
+            }
+            return includeEmail && email.contains(q) ? 4 : -1;
+        }
+    }
+
+    private record Match(Long id, int rank, int length) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.project_final.user_service.service;
+
+import com.project_final.user_service.exceptions.UserPreconditionFailedException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Reintento de escrituras con concurrencia optimista: si otra escritura se
+ * adelanta, la acción se repite entera (volviendo a leer el usuario) tras una
+ * espera corta y aleatoria. Pensado para llamadas internas; las peticiones
+ * HTTP con If-Match reciben el conflicto.
+ */
+public final class OptimisticRetry {
+
+    private static final long BASE_BACKOFF_NANOS = 1_000_000L;
+
+    private OptimisticRetry() {
+    }
+
+    public static <T> T execute(int maxAttempts, Supplier<T> action) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts debe ser al menos 1");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (UserPreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                // Espera aleatoria creciente para que los que chocaron no vuelvan a coincidir
+                long bound = BASE_BACKOFF_NANOS << Math.min(attempt - 1, 6);
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound / 2, bound + 1));
+            }
+        }
+    }
+}
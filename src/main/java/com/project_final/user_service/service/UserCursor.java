@@ -0,0 +1,70 @@
+package com.project_final.user_service.service;
+
+import com.project_final.user_service.exceptions.UserValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Codificación de los cursores opacos usados en la paginación por keyset:
+ * el del listado (último ID) y el del feed de cambios (updatedAt, ID)
+ */
+final class UserCursor {
+
+    private static final String PREFIX = "id:";
+    private static final String CHANGE_PREFIX = "chg:";
+
+    // Posición en el feed de cambios: el último cambio entregado
+    record ChangePosition(LocalDateTime at, long id) {
+        static final ChangePosition START = new ChangePosition(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    }
+
+    private UserCursor() {
+    }
+
+    static String encode(Long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    // Devuelve el último ID visto, o 0 si no hay cursor (primera página)
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new UserValidationException("cursor", "El cursor no es válido");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new UserValidationException("cursor", "El cursor no es válido");
+        }
+    }
+
+    static String encodeChange(ChangePosition position) {
+        byte[] raw = (CHANGE_PREFIX + position.at() + "|" + position.id()).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    // Devuelve la posición del último cambio entregado, o el principio si no hay cursor
+    static ChangePosition decodeChange(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ChangePosition.START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (!raw.startsWith(CHANGE_PREFIX) || separator < 0) {
+                throw new UserValidationException("cursor", "El cursor no es válido");
+            }
+            return new ChangePosition(LocalDateTime.parse(raw.substring(CHANGE_PREFIX.length(), separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new UserValidationException("cursor", "El cursor no es válido");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.project_final.user_service.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de la tabla de usuarios en formato NDJSON (un usuario por línea).
+ * Los usuarios se leen con un cursor de solo avance y se desasocian del
+ * contexto de persistencia en cuanto se escriben, por lo que la memoria
+ * usada no depende del tamaño de la tabla.
+ */
+@Service
+public class UserExportService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Filas que el driver trae en cada viaje a la base de datos
+    @Value("${user.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Cada cuántas líneas se vacía el buffer hacia el cliente
+    @Value("${user.export.flush-every:1000}")
+    private int flushEvery;
+
+    // Escribe los usuarios (opcionalmente solo los modificados desde 'since') y devuelve cuántos se exportaron
+    public long exportNdjson(LocalDateTime since, OutputStream out) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        Long exported = template.execute(status -> {
+            try (Stream<User> users = openStream(since);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                return writeLines(users.iterator(), generator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return exported != null ? exported : 0L;
+    }
+
+    private Stream<User> openStream(LocalDateTime since) {
+        String jpql = since == null
+                ? "SELECT u FROM User u ORDER BY u.id"
+                : "SELECT u FROM User u WHERE u.updatedAt >= :since ORDER BY u.id";
+
+        TypedQuery<User> query = entityManager.createQuery(jpql, User.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (since != null) {
+            query.setParameter("since", since);
+        }
+        return query.getResultStream();
+    }
+
+    private long writeLines(Iterator<User> users, JsonGenerator generator) throws IOException {
+        long count = 0;
+        while (users.hasNext()) {
+            User user = users.next();
+            generator.writeObject(user);
+            generator.writeRaw('\n');
+            // Liberar la entidad para que el contexto de persistencia no crezca
+            entityManager.detach(user);
+
+            if (++count % flushEvery == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return count;
+    }
+}
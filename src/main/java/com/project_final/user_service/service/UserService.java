@@ -1,113 +1,763 @@
 package com.project_final.user_service.service;
 
+import com.project_final.user_service.cache.EmailBloomFilter;
+import com.project_final.user_service.cache.OrderListCache;
+import com.project_final.user_service.cache.UserCache;
+import com.project_final.user_service.cache.UserCounter;
+import com.project_final.user_service.client.OrderServiceClient;
+import com.project_final.user_service.config.ReplicaRoutingDataSource;
 import com.project_final.user_service.model.User;
+import com.project_final.user_service.model.UserChangeEvent;
+import com.project_final.user_service.model.UserTombstone;
+import com.project_final.user_service.dto.BatchItemResultDTO;
+import com.project_final.user_service.dto.BatchResultDTO;
+import com.project_final.user_service.dto.CachedOrdersDTO;
+import com.project_final.user_service.dto.UserChangeDTO;
+import com.project_final.user_service.dto.UserChangesPageDTO;
 import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserCountDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupRequestDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.dto.UserVersionDTO;
+import com.project_final.user_service.repositories.UserBatchRepository;
+import com.project_final.user_service.repositories.UserChangeEventRepository;
+import com.project_final.user_service.repositories.UserIdEmail;
 import com.project_final.user_service.repositories.UserRepository;
+import com.project_final.user_service.repositories.UserStatsRepository;
+import com.project_final.user_service.repositories.UserTombstoneRepository;
+import com.project_final.user_service.search.UserSearchIndex;
 import com.project_final.user_service.exceptions.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    // Longitud por defecto de la columna users.email
+    private static final int MAX_EMAIL_LENGTH = 255;
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private OrderServiceClient orderServiceClient;
+
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private OrderListCache orderListCache;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
 
-    // URL del Order Service (configurar en application.properties)
-    private final String ORDER_SERVICE_URL = "http://order-service/api/orders";
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private UserCounter userCounter;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    // Outbox: cada alta, modificación y baja guarda su evento de cambio en la misma transacción
+    @Autowired
+    private UserChangeEventRepository userChangeEventRepository;
+
+    // Bajas para el feed de cambios (la fila de users se borra)
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+
+    // Transacciones explícitas: updateUserWithRetry llama a updateUser sin pasar por el proxy
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Tamaño de página por defecto y máximo permitido en el listado paginado
+    @Value("${user.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${user.page.max-size:500}")
+    private int maxPageSize;
+
+    // Máximo de usuarios aceptados en una carga masiva
+    @Value("${user.batch.max-items:10000}")
+    private int maxBatchItems;
+
+    // Máximo de claves por búsqueda múltiple y tamaño de cada consulta IN
+    @Value("${user.lookup.max-keys:5000}")
+    private int maxLookupKeys;
+
+    @Value("${user.lookup.chunk-size:500}")
+    private int lookupChunkSize;
+
+    // El listado completo (sin paginar) solo está disponible si se habilita explícitamente
+    @Value("${user.listing.unpaged-enabled:false}")
+    private boolean unpagedListingEnabled;
+
+    // Resultados por búsqueda y tamaño de página al reconstruir el índice de búsqueda
+    @Value("${user.search.default-limit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${user.search.max-limit:100}")
+    private int maxSearchLimit;
+
+    @Value("${user.search.rebuild-page-size:1000}")
+    private int searchRebuildPageSize;
+
+    // Posición del feed de cambios hasta la que el índice de búsqueda refleja las escrituras de
+    // todas las instancias (null hasta la carga inicial)
+    private volatile String searchSyncCursor;
+
+    // El feed de cambios no entrega lo escrito en esta última ventana: una transacción que confirme tarde
+    // (o una réplica retrasada) no puede aparecer después detrás del cursor de un consumidor
+    @Value("${user.changes.settle-window:PT5S}")
+    private Duration changesSettleWindow;
+
+    // Tiempo que se conservan las bajas; un cursor más antiguo obliga a sincronizar desde el principio
+    @Value("${user.changes.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    // Intentos de updateUserWithRetry cuando otra escritura modifica el usuario a la vez
+    @Value("${user.update.max-attempts:3}")
+    private int maxUpdateAttempts;
+
+    // Los eventos solo se guardan en el outbox si el relay los va a publicar y borrar;
+    // sin él la tabla crecería sin límite
+    @Value("${user.outbox.relay.enabled:false}")
+    private boolean outboxEnabled;
 
     // Crear usuario
     public User createUser(User user) {
         // Validar datos básicos
         validateUserData(user);
 
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw UserAlreadyExistsException.forEmail(user.getEmail());
+        // Solo se toman nombre y email: un ID o una versión ajenos convertirían el save() en un merge
+        User newUser = new User(user.getName(), user.getEmail());
+
+        // Sin consulta previa de existencia: el propio INSERT choca con la restricción única del email
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved = saveUnique(newUser);
+            if (outboxEnabled) {
+                userChangeEventRepository.save(UserChangeEvent.created(saved));
+            }
+            return saved;
+        });
+        emailFilter.put(savedUser.getEmail());
+        userCounter.add(1);
+        userCache.put(savedUser);
+        userSearchIndex.index(savedUser);
+        return savedUser;
+    }
+
+    // Crear usuarios en bloque; con upsert los emails existentes se actualizan en lugar de rechazarse
+    @Transactional
+    public BatchResultDTO createUsersBatch(List<User> users, boolean upsert) {
+        if (users == null || users.isEmpty()) {
+            throw new UserValidationException("El lote de usuarios no puede estar vacío");
+        }
+        if (users.size() > maxBatchItems) {
+            throw new UserValidationException("El lote no puede tener más de " + maxBatchItems + " usuarios");
+        }
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[users.size()];
+
+        // 1. Validar todo el lote en una pasada y descartar emails repetidos (email normalizado -> índice)
+        Map<String, Integer> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            try {
+                validateUserData(user);
+            } catch (UserValidationException e) {
+                results[i] = BatchItemResultDTO.failed(i, user != null ? user.getEmail() : null,
+                        BatchItemResultDTO.Status.INVALID, e.getMessage());
+                continue;
+            }
+            if (accepted.putIfAbsent(normalizeEmail(user.getEmail()), i) != null) {
+                results[i] = BatchItemResultDTO.failed(i, user.getEmail(),
+                        BatchItemResultDTO.Status.DUPLICATE_IN_REQUEST, "El email está repetido en el lote");
+            }
+        }
+
+        // 2. Una única consulta IN para saber qué emails existen ya. Sin upsert se omiten los que el
+        // filtro descarta; con upsert se consultan todos, porque el filtro de esta instancia no ve
+        // las altas de las demás y un email ausente en él acabaría en un INSERT duplicado
+        Map<String, Long> existingIds = new HashMap<>();
+        boolean filterUsed = !upsert && emailFilter.isReady();
+        List<String> emails = accepted.values().stream()
+                .map(i -> users.get(i).getEmail())
+                .filter(email -> upsert || emailFilter.mightContain(email))
+                .toList();
+        if (!emails.isEmpty()) {
+            for (UserIdEmail row : userRepository.findIdAndEmailByEmailIn(emails)) {
+                existingIds.put(normalizeEmail(row.getEmail()), row.getId());
+            }
+            // "Puede estar" que la base de datos desmiente: falso positivo del filtro
+            if (filterUsed) {
+                emails.stream()
+                        .filter(email -> !existingIds.containsKey(normalizeEmail(email)))
+                        .forEach(email -> emailFilter.recordFalsePositive());
+            }
+        }
+
+        // 3. Repartir entre inserciones, actualizaciones y rechazos
+        List<User> toInsert = new ArrayList<>();
+        List<Integer> insertIndexes = new ArrayList<>();
+        List<User> toUpdate = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : accepted.entrySet()) {
+            int i = entry.getValue();
+            User user = users.get(i);
+            Long existingId = existingIds.get(entry.getKey());
+
+            if (existingId == null) {
+                toInsert.add(user);
+                insertIndexes.add(i);
+            } else if (upsert) {
+                toUpdate.add(user);
+                results[i] = new BatchItemResultDTO(i, user.getEmail(), BatchItemResultDTO.Status.UPDATED, existingId, null);
+            } else {
+                results[i] = BatchItemResultDTO.failed(i, user.getEmail(), BatchItemResultDTO.Status.ALREADY_EXISTS,
+                        UserAlreadyExistsException.forEmail(user.getEmail()).getMessage());
+            }
+        }
+
+        // 4. Escribir en lotes JDBC, junto con sus eventos de cambio
+        LocalDateTime now = LocalDateTime.now();
+        List<UserChangeEvent> events = new ArrayList<>();
+        try {
+            if (!toUpdate.isEmpty()) {
+                userBatchRepository.updateAllByEmail(toUpdate, now);
+                for (User user : toUpdate) {
+                    // La carga masiva no lee la versión resultante
+                    events.add(new UserChangeEvent(existingIds.get(normalizeEmail(user.getEmail())),
+                            UserChangeEvent.Type.UPDATED, user.getName(), user.getEmail(), null, now));
+                }
+            }
+            if (!toInsert.isEmpty()) {
+                List<Long> ids = userBatchRepository.insertAll(toInsert, now);
+                userCounter.add(ids.size());
+                for (int k = 0; k < insertIndexes.size(); k++) {
+                    int i = insertIndexes.get(k);
+                    results[i] = new BatchItemResultDTO(i, users.get(i).getEmail(),
+                            BatchItemResultDTO.Status.CREATED, ids.get(k), null);
+                    emailFilter.put(users.get(i).getEmail());
+                    userSearchIndex.index(ids.get(k), users.get(i).getName(), users.get(i).getEmail());
+                    events.add(new UserChangeEvent(ids.get(k), UserChangeEvent.Type.CREATED,
+                            users.get(i).getName(), users.get(i).getEmail(), 0L, now));
+                }
+            }
+            if (outboxEnabled && !events.isEmpty()) {
+                userBatchRepository.insertChangeEvents(events);
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            // Otro proceso (u otra instancia, que el filtro no conoce) insertó alguno de los emails.
+            // Se añaden al filtro para que el reintento los consulte y los rechace o actualice
+            if (!toInsert.isEmpty()) {
+                userRepository.findIdAndEmailByEmailIn(toInsert.stream().map(User::getEmail).toList())
+                        .forEach(row -> emailFilter.put(row.getEmail()));
+            }
+            throw new UserAlreadyExistsException("Alguno de los emails del lote se registró concurrentemente, reintente la carga", e);
+        }
+
+        for (User user : toUpdate) {
+            Long id = existingIds.get(normalizeEmail(user.getEmail()));
+            // Por ID: la entrada por email puede estar con otra grafía que la del lote
+            userCache.evictById(id);
+            userSearchIndex.index(id, user.getName(), user.getEmail());
+        }
+        return new BatchResultDTO(Arrays.asList(results));
+    }
+
+    // Obtener todos los usuarios (sin paginar, requiere habilitarlo por configuración)
+    public List<UserDTO> getAllUsers() {
+        if (!unpagedListingEnabled) {
+            throw new UserValidationException(
+                    "El listado completo está deshabilitado, utilice la paginación por cursor");
         }
-        return userRepository.save(user);
+        return userRepository.findAllViews();
     }
 
-    // Obtener todos los usuarios
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // Obtener una página de usuarios a partir de un cursor (keyset sobre el ID)
+    public UserPageDTO getUsersPage(String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        long afterId = UserCursor.decode(cursor);
+
+        // Se pide un elemento de más para saber si existe una página siguiente
+        List<UserDTO> rows = userRepository.findViewsAfterId(afterId, PageRequest.of(0, pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new UserPageDTO(rows, null, pageSize);
+        }
+        List<UserDTO> items = new ArrayList<>(rows.subList(0, pageSize));
+        String nextCursor = UserCursor.encode(items.get(pageSize - 1).id());
+        return new UserPageDTO(items, nextCursor, pageSize);
+    }
+
+    // Cambios posteriores al cursor: altas y modificaciones por (updatedAt, id) mezcladas con las bajas
+    public UserChangesPageDTO getChanges(String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        UserCursor.ChangePosition from = UserCursor.decodeChange(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        if (cursor != null && !cursor.isBlank() && from.at().isBefore(now.minus(tombstoneRetention))) {
+            throw new UserValidationException("cursor",
+                    "El cursor es anterior a la retención de bajas, vuelva a sincronizar desde el principio");
+        }
+        LocalDateTime until = now.minus(changesSettleWindow);
+
+        // Un elemento de más de cada origen basta para mezclar la página y saber si hay más
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<UserDTO> users = userRepository.findViewsChangedAfter(from.at(), from.id(), until, page);
+        List<UserTombstone> tombstones = userTombstoneRepository.findDeletedAfter(from.at(), from.id(), until, page);
+
+        List<UserChangeDTO> changes = new ArrayList<>(pageSize + 1);
+        int u = 0;
+        int t = 0;
+        while (changes.size() <= pageSize && (u < users.size() || t < tombstones.size())) {
+            boolean takeUser = t == tombstones.size() || (u < users.size()
+                    && compare(users.get(u).updatedAt(), users.get(u).id(),
+                    tombstones.get(t).getDeletedAt(), tombstones.get(t).getUserId()) < 0);
+            if (takeUser) {
+                changes.add(UserChangeDTO.upsert(users.get(u++)));
+            } else {
+                UserTombstone tombstone = tombstones.get(t++);
+                changes.add(UserChangeDTO.delete(tombstone.getUserId(), tombstone.getDeletedAt()));
+            }
+        }
+
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = new ArrayList<>(changes.subList(0, pageSize));
+        }
+        // Sin más cambios ya se entregó todo hasta until: el cursor avanza hasta ahí aunque la página esté
+        // vacía, para que un consumidor sin novedades no acabe con un cursor fuera de la retención
+        UserChangeDTO last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+        UserCursor.ChangePosition next = hasMore
+                ? new UserCursor.ChangePosition(last.changedAt(), last.id())
+                : new UserCursor.ChangePosition(until, Long.MAX_VALUE);
+        return new UserChangesPageDTO(changes, UserCursor.encodeChange(next), hasMore, pageSize);
+    }
+
+    // Eliminar las bajas que superan la retención del feed de cambios
+    @Scheduled(initialDelayString = "${user.changes.tombstone-purge-interval:PT1H}",
+            fixedDelayString = "${user.changes.tombstone-purge-interval:PT1H}")
+    public void purgeTombstones() {
+        int purged = userTombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            logger.info("Eliminadas {} bajas anteriores a la retención del feed de cambios", purged);
+        }
     }
 
     // Obtener usuario por ID
     public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id);
+        return userCache.getById(id, this::loadUserById);
+    }
+
+    // Versión y fecha de modificación de un usuario: de la caché si está, si no con una consulta de dos columnas
+    public Optional<UserVersionDTO> getUserVersion(Long id) {
+        Optional<User> cached = userCache.peekById(id);
+        if (cached.isPresent()) {
+            return Optional.of(new UserVersionDTO(cached.get().getVersion(), cached.get().getUpdatedAt()));
+        }
+        return userRepository.findVersionById(id);
     }
 
     // Obtener usuario por email
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email, this::loadUserByEmail);
+    }
+
+    // Resolver muchos usuarios por ID y/o email en una sola llamada
+    public UserLookupResultDTO lookupUsers(UserLookupRequestDTO request) {
+        List<Long> ids = request.getIds() == null ? List.of()
+                : request.getIds().stream().filter(Objects::nonNull).distinct().toList();
+        List<String> emails = request.getEmails() == null ? List.of()
+                : request.getEmails().stream().filter(e -> e != null && !e.isBlank()).distinct().toList();
+
+        if (ids.size() + emails.size() > maxLookupKeys) {
+            throw new UserValidationException("No se pueden buscar más de " + maxLookupKeys + " usuarios a la vez");
+        }
+
+        Map<Long, User> byId = ids.isEmpty() ? Map.of() : userCache.getAllById(ids, this::loadUsersByIds);
+        Map<String, User> byEmail = emails.isEmpty() ? Map.of() : userCache.getAllByEmail(emails, this::loadUsersByEmails);
+
+        List<Long> missingIds = ids.stream().filter(id -> !byId.containsKey(id)).toList();
+        List<String> missingEmails = emails.stream().filter(email -> !byEmail.containsKey(email)).toList();
+        return new UserLookupResultDTO(byId, byEmail, missingIds, missingEmails);
     }
 
     // Actualizar usuario
     public User updateUser(Long id, User userDetails) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
+        return updateUser(id, userDetails, null);
+    }
 
+    // Actualizar solo si el usuario sigue en expectedVersion (null = sin precondición). Un único
+    // UPDATE comprueba la versión y la unicidad del email; después se lee el estado nuevo
+    public User updateUser(Long id, User userDetails, Long expectedVersion) {
         // Validar nuevos datos
         validateUserData(userDetails);
 
-        // Verificar si el nuevo email ya existe (si es diferente al actual)
-        if (!user.getEmail().equals(userDetails.getEmail()) &&
-                userRepository.existsByEmail(userDetails.getEmail())) {
-            throw UserAlreadyExistsException.forEmail(userDetails.getEmail());
-        }
+        User savedUser = transactionTemplate.execute(status -> {
+            int updated;
+            try {
+                updated = userRepository.updateNameAndEmail(id, userDetails.getName(), userDetails.getEmail(),
+                        LocalDateTime.now(), expectedVersion);
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateEmail(userDetails.getEmail(), e);
+            }
+            if (updated == 0) {
+                // Solo si no se modificó ninguna fila se consulta si falta el usuario o cambió su versión
+                UserVersionDTO current = userRepository.findVersionById(id)
+                        .orElseThrow(() -> new UserNotFoundException(id));
+                throw new UserPreconditionFailedException(id, expectedVersion, current.version());
+            }
 
-        user.setName(userDetails.getName());
-        user.setEmail(userDetails.getEmail());
+            // MySQL no tiene UPDATE ... RETURNING: el estado nuevo se lee por clave primaria
+            User saved = userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException(id));
+            if (outboxEnabled) {
+                userChangeEventRepository.save(UserChangeEvent.updated(saved));
+            }
+            return saved;
+        });
+        emailFilter.put(savedUser.getEmail());
+        // Si cambió el email hay que invalidar también la clave antigua
+        userCache.evictById(id);
+        userCache.evict(id, savedUser.getEmail());
+        userSearchIndex.index(savedUser);
+        return savedUser;
+    }
 
-        return userRepository.save(user);
+    // Para llamadas internas: aplica los cambios sobre la versión actual y, si otra escritura se
+    // adelanta, vuelve a leer el usuario y los aplica de nuevo
+    public User updateUserWithRetry(Long id, Consumer<User> changes) {
+        return OptimisticRetry.execute(maxUpdateAttempts, () -> {
+            // En una transacción de escritura para leer del primario: en una réplica con retraso
+            // se leería siempre la misma versión antigua y se agotarían los intentos
+            User current = transactionTemplate.execute(status -> userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException(id)));
+            User details = new User(current.getName(), current.getEmail());
+            changes.accept(details);
+            return updateUser(id, details, current.getVersion());
+        });
     }
 
     // Eliminar usuario
     public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
-
-        userRepository.delete(user);
+        // Un solo DELETE: si no afecta a ninguna fila es que el usuario no existía
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.deleteUserById(id) == 0) {
+                throw new UserNotFoundException(id);
+            }
+            if (outboxEnabled) {
+                userChangeEventRepository.save(UserChangeEvent.deleted(id));
+            }
+            userTombstoneRepository.save(new UserTombstone(id, LocalDateTime.now()));
+        });
+        userCounter.add(-1);
+        userCache.evictById(id);
+        orderListCache.evict(id);
+        userSearchIndex.remove(id);
     }
 
     // Buscar usuarios por nombre
-    public List<User> searchUsersByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
+    public List<UserDTO> searchUsersByName(String name) {
+        return searchUsers(name, null, false);
+    }
+
+    // Buscar usuarios cuyo nombre (o email) contiene el texto, ordenados por relevancia
+    public List<UserDTO> searchUsers(String query, Integer limit, boolean includeEmail) {
+        if (query == null || query.trim().isEmpty()) {
             throw new UserValidationException("name", "El nombre no puede estar vacío");
         }
-        return userRepository.findByNameContaining(name);
+        int size = resolveSearchLimit(limit);
+
+        // Hasta que termine la carga inicial del índice se consulta la base de datos (acotado)
+        if (!userSearchIndex.isReady()) {
+            return userRepository.findViewsByNameContaining(query.trim(), PageRequest.of(0, size));
+        }
+
+        List<Long> ids = userSearchIndex.search(query, size, includeEmail);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = userCache.getAllById(ids, this::loadUsersByIds);
+        return ids.stream().map(users::get).filter(Objects::nonNull).map(UserDTO::from).toList();
+    }
+
+    // Cargar el índice de búsqueda y el filtro de emails al arrancar, recorriendo la tabla por páginas de ID
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        // Lo que cambie durante la carga (aquí o en otra instancia) lo recoge syncSearchIndex desde
+        // este punto; se retrocede la ventana de asentamiento porque el feed aún no la ha entregado
+        searchSyncCursor = UserCursor.encodeChange(
+                new UserCursor.ChangePosition(LocalDateTime.now().minus(changesSettleWindow), 0L));
+        long afterId = 0;
+        long count = 0;
+        List<UserDTO> page;
+        do {
+            page = userRepository.findViewsAfterId(afterId, PageRequest.of(0, searchRebuildPageSize));
+            for (UserDTO user : page) {
+                userSearchIndex.load(user.id(), user.name(), user.email());
+                emailFilter.put(user.email());
+            }
+            count += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == searchRebuildPageSize);
+        userSearchIndex.markReady();
+        emailFilter.markReady();
+        userCounter.reconcile(count);
+        logger.info("Índice de búsqueda y filtro de emails cargados con {} usuarios", userSearchIndex.size());
+    }
+
+    // Aplicar al índice de búsqueda y al filtro de emails las altas, modificaciones y bajas hechas en
+    // otras instancias, leyéndolas del feed de cambios desde la última posición sincronizada
+    @Scheduled(initialDelayString = "${user.search.sync-interval:PT30S}",
+            fixedDelayString = "${user.search.sync-interval:PT30S}")
+    public synchronized void syncSearchIndex() {
+        String cursor = searchSyncCursor;
+        if (cursor == null || !userSearchIndex.isReady()) {
+            return;
+        }
+        int applied = 0;
+        UserChangesPageDTO page;
+        do {
+            try {
+                page = getChanges(cursor, null);
+            } catch (UserValidationException e) {
+                // Cursor fuera de la retención de bajas (sin sincronizar durante semanas): se reconstruye
+                logger.warn("El índice de búsqueda lleva demasiado sin sincronizarse, se reconstruye");
+                userSearchIndex.clear();
+                loadIndexes();
+                return;
+            }
+            for (UserChangeDTO change : page.getChanges()) {
+                if (change.type() == UserChangeDTO.Type.DELETE) {
+                    userSearchIndex.remove(change.id());
+                } else {
+                    userSearchIndex.index(change.id(), change.user().name(), change.user().email());
+                    emailFilter.put(change.user().email());
+                }
+            }
+            applied += page.getChanges().size();
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        searchSyncCursor = cursor;
+        if (applied > 0) {
+            logger.debug("Índice de búsqueda sincronizado con {} cambios del feed", applied);
+        }
     }
 
     // Obtener órdenes de un usuario (comunicación con Order Service)
     public List<OrderDTO> getUserOrders(Long userId) {
+        return getUserOrdersWithFreshness(userId).getOrders();
+    }
+
+    // Obtener órdenes de un usuario indicando si se sirven desde una copia caducada
+    public CachedOrdersDTO getUserOrdersWithFreshness(Long userId) {
         // Verificar que el usuario existe
-        userRepository.findById(userId)
+        getUserById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
-        try {
-            String url = ORDER_SERVICE_URL + "/user/" + userId;
-            OrderDTO[] orders = restTemplate.getForObject(url, OrderDTO[].class);
-            return orders != null ? List.of(orders) : List.of();
-        } catch (RestClientException e) {
-            throw new OrderServiceException(userId, e);
-        }
+        return orderListCache.get(userId, () -> orderServiceClient.getOrdersByUser(userId));
+    }
+
+    // Estado del cliente de Order Service (circuit breaker, bulkhead y pool de conexiones)
+    public Map<String, Object> getOrderClientStats() {
+        return orderServiceClient.getStats();
     }
 
     // Contar total de usuarios
     public Long getTotalUsers() {
-        return userRepository.countAllUsers();
+        return getUserCount("exact").getTotal();
+    }
+
+    // Total de usuarios: exacto (contador en memoria) o aproximado (estadísticas de la tabla en MySQL)
+    public UserCountDTO getUserCount(String mode) {
+        boolean approximate;
+        if (mode == null || mode.equalsIgnoreCase("exact")) {
+            approximate = false;
+        } else if (mode.equalsIgnoreCase("approximate")) {
+            approximate = true;
+        } else {
+            throw new UserValidationException("mode", "El modo debe ser 'exact' o 'approximate'");
+        }
+
+        if (approximate) {
+            OptionalLong estimate = userStatsRepository.estimateUserCount();
+            if (estimate.isPresent()) {
+                return new UserCountDTO(estimate.getAsLong(), UserCountDTO.Mode.APPROXIMATE);
+            }
+        }
+        OptionalLong total = userCounter.get();
+        if (total.isEmpty()) {
+            reconcileUserCount();
+            total = userCounter.get();
+        }
+        return new UserCountDTO(total.getAsLong(), UserCountDTO.Mode.EXACT);
+    }
+
+    // Corregir el contador con COUNT(*) por si hubo escrituras que no pasaron por este servicio
+    @Scheduled(initialDelayString = "${user.counter.reconcile-interval:PT5M}",
+            fixedDelayString = "${user.counter.reconcile-interval:PT5M}")
+    public void reconcileUserCount() {
+        userCounter.reconcile(userRepository.countAllUsers());
+    }
+
+    // Estadísticas de la caché de usuarios
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(userCache.getStats());
+        stats.put("orders", orderListCache.getStats());
+        stats.put("emailFilter", emailFilter.getStats());
+        stats.put("userCounter", userCounter.getStats());
+        return stats;
     }
 
-    // Método privado para validar datos del usuario
-    private void validateUserData(User user) {
+    // Las cargas de la caché leen del primario: la caché es compartida y una fila atrasada de una
+    // réplica se serviría a todos los clientes durante el TTL tras invalidarla en una escritura
+    private Optional<User> loadUserById(Long id) {
+        return ReplicaRoutingDataSource.onPrimary(() -> userRepository.findById(id));
+    }
+
+    private Optional<User> loadUserByEmail(String email) {
+        return ReplicaRoutingDataSource.onPrimary(() -> userRepository.findByEmail(email));
+    }
+
+    // Carga por IDs en consultas IN de tamaño acotado
+    private Map<Long, User> loadUsersByIds(Set<? extends Long> ids) {
+        return ReplicaRoutingDataSource.onPrimary(() -> {
+            Map<Long, User> result = new HashMap<>();
+            for (List<Long> chunk : chunk(new ArrayList<Long>(ids))) {
+                userRepository.findAllById(chunk).forEach(user -> result.put(user.getId(), user));
+            }
+            return result;
+        });
+    }
+
+    // Carga por emails; MySQL compara sin distinguir mayúsculas, así que se asocian por email normalizado
+    private Map<String, User> loadUsersByEmails(Set<? extends String> emails) {
+        Map<String, String> requested = new HashMap<>();
+        emails.forEach(email -> requested.put(normalizeEmail(email), email));
+
+        return ReplicaRoutingDataSource.onPrimary(() -> {
+            Map<String, User> result = new HashMap<>();
+            for (List<String> chunk : chunk(new ArrayList<String>(emails))) {
+                for (User user : userRepository.findByEmailIn(chunk)) {
+                    String key = requested.get(normalizeEmail(user.getEmail()));
+                    if (key != null) {
+                        result.put(key, user);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    // La restricción única de users.email decide si el email ya existe (también ante altas concurrentes)
+    private User saveUnique(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmail(user.getEmail(), e);
+        }
+    }
+
+    // Solo un duplicado en la restricción única (en users, la del email) significa que el email ya
+    // existe; cualquier otra violación (longitud, nulos...) se propaga tal cual
+    private RuntimeException duplicateEmail(String email, DataIntegrityViolationException cause) {
+        if (!isDuplicateKey(cause)) {
+            return cause;
+        }
+        return new UserAlreadyExistsException(UserAlreadyExistsException.forEmail(email).getMessage(), cause);
+    }
+
+    // SQLSTATE 23505 es el estándar (H2, PostgreSQL); MySQL usa el genérico 23000 con el código 1062
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                return "23505".equals(sql.getSQLState()) || sql.getErrorCode() == MYSQL_DUPLICATE_ENTRY;
+            }
+        }
+        return false;
+    }
+
+    // Orden del feed de cambios: por fecha y, a igual fecha, por ID
+    private int compare(LocalDateTime at, Long id, LocalDateTime otherAt, Long otherId) {
+        int byTime = at.compareTo(otherAt);
+        return byTime != 0 ? byTime : Long.compare(id, otherId);
+    }
+
+    private <T> List<List<T>> chunk(List<T> keys) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += lookupChunkSize) {
+            chunks.add(keys.subList(from, Math.min(from + lookupChunkSize, keys.size())));
+        }
+        return chunks;
+    }
+
+    private String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int resolveSearchLimit(Integer limit) {
+        if (limit == null) {
+            return defaultSearchLimit;
+        }
+        if (limit < 1) {
+            throw new UserValidationException("limit", "El número de resultados debe ser mayor que 0");
+        }
+        return Math.min(limit, maxSearchLimit);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new UserValidationException("limit", "El tamaño de página debe ser mayor que 0");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Validar datos del usuario (pública para ValidationBenchmark)
+    public void validateUserData(User user) {
         if (user == null) {
             throw new UserValidationException("Los datos del usuario no pueden ser nulos");
         }
@@ -129,5 +779,11 @@ public class UserService {
         if (user.getName().length() > 100) {
             throw new UserValidationException("name", "El nombre no puede tener más de 100 caracteres");
         }
+
+        // Validación de longitud del email (la de la columna users.email)
+        if (user.getEmail().length() > MAX_EMAIL_LENGTH) {
+            throw new UserValidationException("email",
+                    "El email no puede tener más de " + MAX_EMAIL_LENGTH + " caracteres");
+        }
     }
 }
\ No newline at end of file
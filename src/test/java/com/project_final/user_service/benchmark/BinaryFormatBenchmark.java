@@ -0,0 +1,104 @@
+package com.project_final.user_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.config.JacksonConfig;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON frente a CBOR (Accept: application/cbor) para las respuestas de
+ * UserController: un usuario, una página de 50 y 50 órdenes. Los tamaños de
+ * cada carga se imprimen al preparar el benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private User user;
+    private UserPageDTO page;
+    private OrderDTO[] orders;
+    private byte[] userBytes;
+    private byte[] ordersBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Mismos mappers que Spring MVC: el JSON de Boot y el CBOR de JacksonConfig
+        mapper = "cbor".equals(format)
+                ? JacksonConfig.cborObjectMapper(Jackson2ObjectMapperBuilder.json())
+                : Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime now = LocalDateTime.now();
+        user = new User("Juan Pérez", "juan.perez@example.com");
+        user.setId(1L);
+        user.setVersion(3L);
+
+        List<UserDTO> items = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            items.add(new UserDTO(i, "Usuario " + i, "usuario" + i + "@example.com", now, now));
+        }
+        page = new UserPageDTO(items, "aWQ6NTA", 50);
+
+        orders = new OrderDTO[50];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new OrderDTO((long) i, 1L, 1, new BigDecimal("99.95"), now);
+        }
+
+        userBytes = mapper.writeValueAsBytes(user);
+        ordersBytes = mapper.writeValueAsBytes(orders);
+        System.out.printf("%n[%s] bytes: user=%d, page(50)=%d, orders(50)=%d%n", format,
+                userBytes.length, mapper.writeValueAsBytes(page).length, ordersBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeUser() throws Exception {
+        return mapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User decodeUser() throws Exception {
+        return mapper.readValue(userBytes, User.class);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeOrders() throws Exception {
+        return mapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public OrderDTO[] decodeOrders() throws Exception {
+        return mapper.readValue(ordersBytes, OrderDTO[].class);
+    }
+}
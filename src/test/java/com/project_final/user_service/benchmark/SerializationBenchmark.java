@@ -0,0 +1,81 @@
+package com.project_final.user_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización Jackson de las respuestas de UserController y deserialización
+ * de las órdenes que devuelve Order Service, con un ObjectMapper equivalente
+ * al que configura Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "50"})
+    private int orders;
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private Map<String, Object> deleteResponse;
+    private byte[] ordersJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        user = new User("Juan Pérez", "juan.perez@example.com");
+        user.setId(1L);
+
+        // Misma forma que la respuesta de DELETE /api/users/{id}
+        deleteResponse = new HashMap<>();
+        deleteResponse.put("success", true);
+        deleteResponse.put("message", "Usuario eliminado exitosamente");
+        deleteResponse.put("userId", 1L);
+        deleteResponse.put("timestamp", LocalDateTime.now());
+
+        OrderDTO[] payload = new OrderDTO[orders];
+        for (int i = 0; i < orders; i++) {
+            payload[i] = new OrderDTO((long) i, 1L, 1, new BigDecimal("99.95"), LocalDateTime.now());
+        }
+        ordersJson = objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseMap() throws Exception {
+        return objectMapper.writeValueAsBytes(deleteResponse);
+    }
+
+    @Benchmark
+    public OrderDTO[] deserializeOrders() throws Exception {
+        return objectMapper.readValue(ordersJson, OrderDTO[].class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.project_final.user_service.benchmark;
+
+import com.project_final.user_service.config.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparativa de throughput y p99 entre el pool de hilos de plataforma de Tomcat
+ * (200 hilos por defecto) y un hilo virtual por petición.
+ * <p>
+ * Cada petición simula GET /api/users/{id}/orders: una consulta que ocupa una conexión
+ * del pool de Hikari y después la llamada bloqueante a Order Service.
+ * <p>
+ * Ejecución (el modo virtual solo se mide en Java 21+):
+ * <pre>
+ * mvn -B test-compile
+ * java -cp target/classes:target/test-classes \
+ *      com.project_final.user_service.benchmark.ThreadModeBenchmark [peticiones] [concurrencia]
+ * </pre>
+ */
+public class ThreadModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int DB_POOL_SIZE = 20;
+    private static final long DB_MILLIS = 2;
+    private static final long ORDER_SERVICE_MILLIS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        System.out.printf("peticiones=%d concurrencia=%d pool BD=%d latencia Order Service=%dms%n",
+                requests, concurrency, DB_POOL_SIZE, ORDER_SERVICE_MILLIS);
+
+        ExecutorService platform = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        try {
+            run("platform(" + TOMCAT_MAX_THREADS + ")", platform, requests, concurrency);
+        } finally {
+            platform.shutdownNow();
+        }
+
+        if (!VirtualThreads.isSupported()) {
+            System.out.println("virtual: omitido, requiere Java 21 (JVM actual: " + Runtime.version().feature() + ")");
+            return;
+        }
+        ExecutorService virtual = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            run("virtual", virtual, requests, concurrency);
+        } finally {
+            virtual.shutdownNow();
+        }
+    }
+
+    private static void run(String mode, ExecutorService executor, int requests, int concurrency) throws Exception {
+        Semaphore dbPool = new Semaphore(DB_POOL_SIZE);
+        // Los clientes mantienen como máximo "concurrency" peticiones abiertas a la vez
+        Semaphore clients = new Semaphore(concurrency);
+        long[] latencies = new long[requests];
+        List<CompletableFuture<Void>> pending = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            clients.acquire();
+            long submitted = System.nanoTime();
+            pending.add(CompletableFuture.runAsync(() -> {
+                try {
+                    handleRequest(dbPool);
+                } finally {
+                    latencies[index] = System.nanoTime() - submitted;
+                    clients.release();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%-14s throughput=%8.0f req/s  p50=%6.1fms  p99=%7.1fms%n",
+                mode,
+                requests / (elapsed / 1_000_000_000.0),
+                latencies[(int) (requests * 0.50)] / 1_000_000.0,
+                latencies[Math.min(requests - 1, (int) (requests * 0.99))] / 1_000_000.0);
+    }
+
+    private static void handleRequest(Semaphore dbPool) {
+        try {
+            dbPool.acquire();
+            try {
+                Thread.sleep(DB_MILLIS);
+            } finally {
+                dbPool.release();
+            }
+            Thread.sleep(ORDER_SERVICE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
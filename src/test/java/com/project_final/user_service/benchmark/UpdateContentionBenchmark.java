@@ -0,0 +1,124 @@
+package com.project_final.user_service.benchmark;
+
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.repositories.UserRepository;
+import com.project_final.user_service.service.OptimisticRetry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actualizaciones concurrentes de unas pocas filas "calientes" sobre H2:
+ * concurrencia optimista (@Version y reintento) frente a SELECT ... FOR UPDATE.
+ * Entre la lectura y la escritura se simula el trabajo de la petición
+ * (validación, mapeo), que con bloqueo pesimista se hace con la fila bloqueada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class UpdateContentionBenchmark {
+
+    private static final long WORK_TOKENS = 20_000;
+
+    // 1 fila: todos los hilos compiten; 64 filas: los choques son raros
+    @Param({"1", "64"})
+    private int hotRows;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RepositoryBenchmark.RepositoryBenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.name=update-contention-benchmark",
+                        "spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "spring.datasource.hikari.maximum-pool-size=16",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.open-in-view=false",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(hotRows);
+        for (int i = 1; i <= hotRows; i++) {
+            rows.add(new Object[]{"Usuario " + i, "user" + i + "@example.com", now, now});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO users (name, email, created_at, updated_at) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Leer, trabajar sin bloqueo y escribir con comprobación de versión; si otro se adelanta, repetir
+    @Benchmark
+    public User optimistic() {
+        long id = randomId();
+        return OptimisticRetry.execute(100, () -> transactionTemplate.execute(status -> {
+            User user = userRepository.findById(id).orElseThrow();
+            Blackhole.consumeCPU(WORK_TOKENS);
+            user.setName("Usuario " + System.nanoTime());
+            return userRepository.saveAndFlush(user);
+        }));
+    }
+
+    // Bloquear la fila al leerla (SELECT ... FOR UPDATE) y mantener el bloqueo durante el trabajo
+    @Benchmark
+    public User pessimistic() {
+        long id = randomId();
+        return transactionTemplate.execute(status -> {
+            User user = entityManager.find(User.class, id, LockModeType.PESSIMISTIC_WRITE);
+            Blackhole.consumeCPU(WORK_TOKENS);
+            user.setName("Usuario " + System.nanoTime());
+            return user;
+        });
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, hotRows + 1);
+    }
+}
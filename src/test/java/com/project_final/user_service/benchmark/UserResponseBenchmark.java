@@ -0,0 +1,76 @@
+package com.project_final.user_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserOperationDTO;
+import com.project_final.user_service.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción y serialización de la respuesta de POST /api/users: el HashMap
+ * anterior frente a UserOperationDTO en formato legacy y compacto. Con el
+ * perfil gc (activo en el perfil benchmark) gc.alloc.rate.norm da los bytes
+ * asignados por petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseBenchmark {
+
+    private ObjectMapper reflectionMapper;
+    private ObjectMapper blackbirdMapper;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        reflectionMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        user = new User("Juan Pérez", "juan.perez@example.com");
+        user.setId(1L);
+    }
+
+    // Respuesta tal y como se construía antes en UserController.createUser
+    @Benchmark
+    public byte[] hashMapResponse() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Usuario creado correctamente");
+        response.put("user", user);
+        response.put("userId", user.getId());
+        response.put("name", user.getName());
+        response.put("email", user.getEmail());
+        response.put("timestamp", LocalDateTime.now());
+        return reflectionMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] legacyRecordResponse() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(
+                UserOperationDTO.success("Usuario creado correctamente", UserDTO.from(user), true));
+    }
+
+    @Benchmark
+    public byte[] compactRecordResponse() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(
+                UserOperationDTO.success("Usuario creado correctamente", UserDTO.from(user), false));
+    }
+}
@@ -0,0 +1,60 @@
+package com.project_final.user_service.benchmark;
+
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Coste de UserService.validateUserData y de la expresión regular del email:
+ * String.matches compila el Pattern en cada llamada, frente a un Pattern precompilado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
+
+    private UserService userService;
+    private User user;
+    private String email;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService();
+        user = new User("Juan Pérez", "juan.perez@example.com");
+        email = user.getEmail();
+    }
+
+    @Benchmark
+    public User validateUserData() {
+        userService.validateUserData(user);
+        return user;
+    }
+
+    @Benchmark
+    public boolean emailStringMatches() {
+        return email.matches(EMAIL_REGEX);
+    }
+
+    @Benchmark
+    public boolean emailPrecompiledPattern() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+}
@@ -0,0 +1,103 @@
+package com.project_final.user_service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Email Bloom Filter Unit Tests")
+class EmailBloomFilterTest {
+
+    @Test
+    @DisplayName("Should answer maybe-present for every email until it is loaded")
+    void shouldBeConservativeUntilReady() {
+        // Given
+        EmailBloomFilter filter = new EmailBloomFilter(1000, 0.01);
+
+        // When & Then
+        assertTrue(filter.mightContain("nuevo@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should never report an inserted email as absent, ignoring case")
+    void shouldHaveNoFalseNegatives() {
+        // Given
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+        filter.markReady();
+
+        // When & Then
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(filter.mightContain("USER" + i + "@example.com")));
+    }
+
+    @Test
+    @DisplayName("Should keep the false positive rate close to the configured one")
+    void shouldRespectConfiguredFalsePositiveRate() {
+        // Given
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+        filter.markReady();
+
+        // When
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.org"))
+                .count();
+
+        // Then
+        assertTrue(falsePositives < 200, "falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should size the filter from the configuration and expose its stats")
+    void shouldExposeStats() {
+        // Given
+        EmailBloomFilter filter = new EmailBloomFilter(1_000_000, 0.01);
+        filter.markReady();
+        filter.mightContain("nuevo@example.com");
+
+        // When
+        Map<String, Object> stats = filter.getStats();
+
+        // Then
+        assertEquals(7, stats.get("hashFunctions"));
+        assertTrue((long) stats.get("memoryBytes") > 1_100_000 && (long) stats.get("memoryBytes") < 1_300_000);
+        assertEquals(1L, stats.get("definitelyAbsent"));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid configuration")
+    void shouldRejectInvalidConfiguration() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new EmailBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new EmailBloomFilter(1000, 1.0));
+    }
+
+    @Test
+    @DisplayName("Should publish memory, checks and false positive rates as metrics")
+    void shouldPublishMetrics() {
+        // Given
+        EmailBloomFilter filter = new EmailBloomFilter(1000, 0.01);
+        filter.put("existe@example.com");
+        filter.markReady();
+        filter.mightContain("nuevo@example.com");
+        filter.mightContain("existe@example.com");
+        filter.recordFalsePositive();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        filter.bindTo(registry);
+
+        // Then
+        assertEquals(filter.getStats().get("memoryBytes"), (long) registry.get("users.email-filter.memory").gauge().value());
+        assertEquals(1.0, registry.get("users.email-filter.insertions").gauge().value());
+        assertEquals(1.0, registry.get("users.email-filter.checks").tag("result", "absent").functionCounter().count());
+        assertEquals(1.0, registry.get("users.email-filter.checks").tag("result", "maybe-present").functionCounter().count());
+        assertEquals(1.0, registry.get("users.email-filter.false-positives").functionCounter().count());
+        assertEquals(0.5, registry.get("users.email-filter.observed-false-positive-rate").gauge().value());
+        assertTrue(registry.get("users.email-filter.expected-false-positive-rate").gauge().value() > 0);
+    }
+}
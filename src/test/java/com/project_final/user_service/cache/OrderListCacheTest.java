@@ -0,0 +1,170 @@
+package com.project_final.user_service.cache;
+
+import com.project_final.user_service.dto.CachedOrdersDTO;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.exceptions.OrderServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Order List Cache Unit Tests")
+class OrderListCacheTest {
+
+    private MutableClock clock;
+    private List<Runnable> pendingRefreshes;
+    private OrderListCache cache;
+    private AtomicInteger remoteCalls;
+    private List<OrderDTO> orders;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        pendingRefreshes = new ArrayList<>();
+        cache = new OrderListCache(100, Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofMinutes(10),
+                pendingRefreshes::add, clock);
+        remoteCalls = new AtomicInteger();
+        orders = List.of(new OrderDTO(1L, 1L, 1, new BigDecimal("10.00"), LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should serve fresh entries without calling order service")
+    void shouldServeFreshEntries() {
+        // Given
+        cache.get(1L, loader());
+        clock.advance(Duration.ofSeconds(2));
+
+        // When
+        CachedOrdersDTO result = cache.get(1L, loader());
+
+        // Then
+        assertFalse(result.isStale());
+        assertEquals(1, remoteCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should serve stale entries and trigger a single background refresh")
+    void shouldServeStaleAndRefreshOnce() {
+        // Given
+        cache.get(1L, loader());
+        clock.advance(Duration.ofSeconds(10));
+
+        // When
+        CachedOrdersDTO first = cache.get(1L, loader());
+        CachedOrdersDTO second = cache.get(1L, loader());
+
+        // Then
+        assertTrue(first.isStale());
+        assertTrue(second.isStale());
+        assertEquals(1, pendingRefreshes.size());
+        assertEquals(1, remoteCalls.get());
+
+        pendingRefreshes.get(0).run();
+        assertEquals(2, remoteCalls.get());
+        assertFalse(cache.get(1L, loader()).isStale());
+    }
+
+    @Test
+    @DisplayName("Should serve last good value flagged as stale when order service fails")
+    void shouldServeLastGoodValueOnError() {
+        // Given
+        cache.get(1L, loader());
+        clock.advance(Duration.ofMinutes(5));
+
+        // When
+        CachedOrdersDTO result = cache.get(1L, failingLoader());
+
+        // Then
+        assertTrue(result.isStale());
+        assertEquals(orders, result.getOrders());
+    }
+
+    @Test
+    @DisplayName("Should propagate the error when there is no usable cached value")
+    void shouldPropagateErrorWithoutCachedValue() {
+        // Given
+        cache.get(1L, loader());
+        clock.advance(Duration.ofMinutes(11));
+
+        // When & Then
+        assertThrows(OrderServiceException.class, () -> cache.get(1L, failingLoader()));
+        assertThrows(OrderServiceException.class, () -> cache.get(2L, failingLoader()));
+    }
+
+    private Supplier<List<OrderDTO>> loader() {
+        return () -> {
+            remoteCalls.incrementAndGet();
+            return orders;
+        };
+    }
+
+    private Supplier<List<OrderDTO>> failingLoader() {
+        return () -> {
+            throw new OrderServiceException(1L, new RuntimeException("Service unavailable"));
+        };
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    @DisplayName("Should publish size and requests by result as metrics")
+    void shouldPublishMetrics() {
+        // Given
+        cache.get(1L, loader());
+        cache.get(1L, loader());
+        clock.advance(Duration.ofSeconds(10));
+        cache.get(1L, loader());
+        pendingRefreshes.forEach(Runnable::run);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        cache.bindTo(registry);
+
+        // Then
+        assertEquals(1.0, registry.get("users.orders.cache.size").gauge().value());
+        assertEquals(1.0, registry.get("users.orders.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("users.orders.cache.requests").tag("result", "fresh").functionCounter().count());
+        assertEquals(1.0, registry.get("users.orders.cache.requests").tag("result", "stale").functionCounter().count());
+        assertEquals(1.0, registry.get("users.orders.cache.background-refreshes").functionCounter().count());
+    }
+}
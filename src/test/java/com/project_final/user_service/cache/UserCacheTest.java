@@ -0,0 +1,192 @@
+package com.project_final.user_service.cache;
+
+import com.project_final.user_service.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Cache Unit Tests")
+class UserCacheTest {
+
+    private UserCache userCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(2, Duration.ofMinutes(5));
+        testUser = new User("Juan Pérez", "juan@example.com");
+        testUser.setId(1L);
+    }
+
+    @Test
+    @DisplayName("Should load each key only once under concurrent misses")
+    void shouldLoadOnceUnderConcurrentMisses() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Optional<User>>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return userCache.getById(1L, id -> {
+                    loads.incrementAndGet();
+                    sleepQuietly();
+                    return Optional.of(testUser);
+                });
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (Future<Optional<User>> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS).isPresent());
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should bound size and record evictions")
+    @SuppressWarnings("unchecked")
+    void shouldBoundSizeAndRecordEvictions() {
+        // Given
+        for (long id = 1; id <= 10; id++) {
+            User user = new User("Usuario " + id, "user" + id + "@example.com");
+            user.setId(id);
+            userCache.put(user);
+        }
+
+        // When
+        userCache.getByIdCache().cleanUp();
+        Map<String, Object> stats = (Map<String, Object>) userCache.getStats().get("byId");
+
+        // Then
+        assertTrue(userCache.getByIdCache().estimatedSize() <= 2);
+        assertTrue((Long) stats.get("evictions") > 0);
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses")
+    @SuppressWarnings("unchecked")
+    void shouldCountHitsAndMisses() {
+        // When
+        userCache.getById(1L, id -> Optional.of(testUser));
+        userCache.getById(1L, id -> Optional.of(testUser));
+        userCache.getByEmail("juan@example.com", email -> Optional.empty());
+
+        // Then
+        Map<String, Object> byId = (Map<String, Object>) userCache.getStats().get("byId");
+        Map<String, Object> byEmail = (Map<String, Object>) userCache.getStats().get("byEmail");
+        assertEquals(1L, byId.get("hits"));
+        assertEquals(1L, byId.get("misses"));
+        assertEquals(1L, byEmail.get("hits"));
+    }
+
+    @Test
+    @DisplayName("Should evict the email entry of a user known only by ID")
+    void shouldEvictEmailEntryById() {
+        // Given
+        userCache.put(testUser);
+        userCache.getByIdCache().invalidate(1L);
+
+        // When
+        userCache.evictById(1L);
+
+        // Then
+        assertNull(userCache.getByEmailCache().getIfPresent("juan@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should evict by ID the email entries loaded in bulk")
+    void shouldEvictBulkLoadedEmailEntryById() {
+        // Given
+        userCache.getAllByEmail(List.of("juan@example.com"), emails -> Map.of("juan@example.com", testUser));
+        userCache.getByIdCache().invalidate(1L);
+
+        // When
+        userCache.evictById(1L);
+
+        // Then
+        assertNull(userCache.getByEmailCache().getIfPresent("juan@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should share one entry across email case variants and evict it by ID")
+    void shouldNormalizeEmailKeys() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getByEmail("JUAN@example.com ", email -> {
+            loads.incrementAndGet();
+            return Optional.of(testUser);
+        });
+
+        // When
+        Optional<User> variant = userCache.getByEmail("juan@EXAMPLE.com", email -> {
+            loads.incrementAndGet();
+            return Optional.of(testUser);
+        });
+        userCache.evictById(1L);
+
+        // Then
+        assertTrue(variant.isPresent());
+        assertEquals(1, loads.get());
+        assertEquals(0L, userCache.getByEmailCache().estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should return bulk lookups under the requested spellings")
+    void shouldKeepRequestedSpellingsInBulkLookups() {
+        // Given
+        List<String> requested = new ArrayList<>();
+
+        // When
+        Map<String, User> found = userCache.getAllByEmail(List.of("Juan@Example.com", "juan@example.com"), emails -> {
+            requested.addAll(emails);
+            return Map.of("Juan@Example.com", testUser);
+        });
+
+        // Then
+        assertEquals(List.of("Juan@Example.com"), requested);
+        assertEquals(Map.of("Juan@Example.com", testUser, "juan@example.com", testUser), found);
+        assertNotNull(userCache.getByEmailCache().getIfPresent("juan@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should invalidate the indexed email when evicting with explicit emails")
+    void shouldEvictIndexedEmail() {
+        // Given
+        userCache.getByEmail("JUAN@example.com", email -> Optional.of(testUser));
+
+        // When
+        userCache.evict(1L, "otro@example.com");
+
+        // Then
+        assertNull(userCache.getByEmailCache().getIfPresent("juan@example.com"));
+        assertTrue(userCache.peekById(1L).isEmpty());
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
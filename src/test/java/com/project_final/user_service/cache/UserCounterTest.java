@@ -0,0 +1,89 @@
+package com.project_final.user_service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Counter Unit Tests")
+class UserCounterTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should be empty until the first reconciliation")
+    void shouldBeEmptyUntilReconciled() {
+        // Given
+        UserCounter counter = new UserCounter();
+
+        // When
+        counter.reconcile(4L);
+
+        // Then
+        assertEquals(OptionalLong.of(4L), counter.get());
+        assertTrue(new UserCounter().get().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply deltas inside a transaction only after commit")
+    void shouldApplyDeltasAfterCommit() {
+        // Given
+        UserCounter counter = new UserCounter();
+        counter.reconcile(10L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        counter.add(5);
+
+        // Then
+        assertEquals(OptionalLong.of(10L), counter.get());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(OptionalLong.of(15L), counter.get());
+    }
+
+    @Test
+    @DisplayName("Should record the drift corrected by reconciliation")
+    void shouldRecordDrift() {
+        // Given
+        UserCounter counter = new UserCounter();
+        counter.reconcile(10L);
+        counter.add(1);
+
+        // When
+        counter.reconcile(13L);
+
+        // Then
+        assertEquals(2L, counter.getStats().get("lastDrift"));
+        assertEquals(2L, counter.getStats().get("reconciliations"));
+    }
+
+    @Test
+    @DisplayName("Should publish the total only once it has been reconciled")
+    void shouldPublishMetrics() {
+        // Given
+        UserCounter counter = new UserCounter();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        counter.bindTo(registry);
+        assertTrue(Double.isNaN(registry.get("users.count").gauge().value()));
+
+        // When
+        counter.reconcile(10L);
+        counter.reconcile(12L);
+
+        // Then
+        assertEquals(12.0, registry.get("users.count").gauge().value());
+        assertEquals(2.0, registry.get("users.count.last-drift").gauge().value());
+        assertEquals(2.0, registry.get("users.count.reconciliations").functionCounter().count());
+    }
+}
@@ -0,0 +1,275 @@
+package com.project_final.user_service.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.project_final.user_service.config.RestTemplateConfig;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.exceptions.OrderServiceException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Order Service Client Tests")
+class OrderServiceClientTest {
+
+    private static final String ORDERS_JSON = "[{\"id\":1,\"userId\":1,\"status\":\"PENDING\",\"totalAmount\":100.00,"
+            + "\"createdAt\":\"2024-01-01T10:00:00\"},{\"id\":2,\"userId\":1,\"status\":\"SHIPPED\",\"totalAmount\":50.00}]";
+
+    private WireMockServer wireMockServer;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "maxConnections", 10);
+        ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 10);
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(config, "connectionRequestTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(config, "keepAlive", Duration.ofSeconds(30));
+
+        connectionManager = config.orderServiceConnectionManager();
+        httpClient = config.orderServiceHttpClient(connectionManager);
+        restTemplate = config.restTemplate(new RestTemplateBuilder(), httpClient);
+
+        circuitBreaker = CircuitBreaker.of("orderService", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .recordExceptions(RestClientException.class)
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Should fetch orders through the pooled client")
+    void shouldFetchOrders() {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(okJson(ORDERS_JSON)));
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+
+        // When
+        List<OrderDTO> orders = client.getOrdersByUser(1L);
+
+        // Then
+        assertEquals(2, orders.size());
+        assertEquals("SHIPPED", orders.get(1).getStatus());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        Timer timer = meterRegistry.get("order.service.requests").tag("outcome", "SUCCESS").timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    @DisplayName("Should fail with OrderServiceException when the read timeout expires")
+    void shouldFailOnReadTimeout() {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(okJson(ORDERS_JSON).withFixedDelay(2000)));
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+
+        // When & Then
+        long start = System.nanoTime();
+        assertThrows(OrderServiceException.class, () -> client.getOrdersByUser(1L));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals(1, meterRegistry.get("order.service.requests")
+                .tags("outcome", "ERROR", "exception", "ResourceAccessException").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit and fail fast after repeated errors")
+    void shouldOpenCircuitAfterRepeatedErrors() {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(serverError()));
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(OrderServiceException.class, () -> client.getOrdersByUser(1L));
+        }
+
+        // When
+        OrderServiceException exception = assertThrows(OrderServiceException.class,
+                () -> client.getOrdersByUser(1L));
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertInstanceOf(CallNotPermittedException.class, exception.getCause());
+        wireMockServer.verify(4, getRequestedFor(urlEqualTo("/api/orders/user/1")));
+    }
+
+    @Test
+    @DisplayName("Should not count client errors towards opening the circuit")
+    void shouldNotCountClientErrors() {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(notFound()));
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            assertThrows(OrderServiceException.class, () -> client.getOrdersByUser(1L));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should reject calls above the bulkhead limit")
+    void shouldRejectCallsAboveBulkheadLimit() throws Exception {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(okJson(ORDERS_JSON).withFixedDelay(250)));
+        OrderServiceClient client = client(Bulkhead.of("orderService", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build()));
+        CompletableFuture<List<OrderDTO>> slowCall = CompletableFuture.supplyAsync(() -> client.getOrdersByUser(1L));
+        while (client.getBulkhead().getMetrics().getAvailableConcurrentCalls() > 0) {
+            Thread.onSpinWait();
+        }
+
+        // When: otro usuario, para que no se agrupe con la llamada en curso
+        OrderServiceException exception = assertThrows(OrderServiceException.class,
+                () -> client.getOrdersByUser(2L));
+
+        // Then
+        assertInstanceOf(BulkheadFullException.class, exception.getCause());
+        slowCall.exceptionally(e -> List.of()).get(5, TimeUnit.SECONDS);
+        assertEquals(1, client.getBulkhead().getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("Should share one remote call between concurrent callers for the same user")
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(okJson(ORDERS_JSON).withFixedDelay(200)));
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<List<OrderDTO>>> calls = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 8; i++) {
+                calls.add(CompletableFuture.supplyAsync(() -> {
+                    awaitQuietly(start);
+                    return client.getOrdersByUser(1L);
+                }, callers));
+            }
+            start.countDown();
+            for (CompletableFuture<List<OrderDTO>> call : calls) {
+                assertEquals(2, call.get(5, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // Then
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/api/orders/user/1")));
+        Map<String, Object> coalescing = (Map<String, Object>) client.getStats().get("coalescing");
+        assertEquals(0, coalescing.get("inFlight"));
+        assertEquals(7L, coalescing.get("sharedCalls"));
+    }
+
+    @Test
+    @DisplayName("Should propagate the failure of a shared call to every waiter")
+    void shouldPropagateSharedFailure() throws Exception {
+        // Given
+        wireMockServer.stubFor(get("/api/orders/user/1")
+                .willReturn(serverError().withFixedDelay(200)));
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+        CompletableFuture<List<OrderDTO>> first = CompletableFuture.supplyAsync(() -> client.getOrdersByUser(1L));
+        while (client.getBulkhead().getMetrics().getAvailableConcurrentCalls()
+                == client.getBulkhead().getMetrics().getMaxAllowedConcurrentCalls()) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        OrderServiceException exception = assertThrows(OrderServiceException.class,
+                () -> client.getOrdersByUser(1L));
+
+        // Then
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class,
+                () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OrderServiceException.class, leaderFailure.getCause());
+        assertSame(leaderFailure.getCause(), exception);
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/api/orders/user/1")));
+    }
+
+    @Test
+    @DisplayName("Should expose breaker, bulkhead and pool statistics")
+    @SuppressWarnings("unchecked")
+    void shouldExposeStats() {
+        // Given
+        OrderServiceClient client = client(Bulkhead.ofDefaults("orderService"));
+
+        // When
+        Map<String, Object> stats = client.getStats();
+
+        // Then
+        assertEquals("CLOSED", ((Map<String, Object>) stats.get("circuitBreaker")).get("state"));
+        assertEquals(10, ((Map<String, Object>) stats.get("connectionPool")).get("max"));
+        assertNotNull(stats.get("bulkhead"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OrderServiceClient client(Bulkhead bulkhead) {
+        return new OrderServiceClient(restTemplate, circuitBreaker, bulkhead, connectionManager,
+                wireMockServer.baseUrl() + "/api/orders", meterRegistry);
+    }
+}
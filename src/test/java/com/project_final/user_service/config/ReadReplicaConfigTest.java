@@ -0,0 +1,57 @@
+package com.project_final.user_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Read Replica Config Tests")
+class ReadReplicaConfigTest {
+
+    // Con el ConversionService de Spring Boot, como en la aplicación, para leer las Duration de @Value
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(ReadReplicaConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:config-primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.hikari.maximum-pool-size=3");
+
+    @Test
+    @DisplayName("Should keep the single auto-configured data source without replicas")
+    void shouldStayOffWithoutReplicas() {
+        contextRunner.run(context -> {
+            // Then
+            assertTrue(context.getBeansOfType(ReplicaRoutingDataSource.class).isEmpty());
+            assertEquals(1, context.getBeansOfType(DataSource.class).size());
+        });
+    }
+
+    @Test
+    @DisplayName("Should expose a lazy routing data source sharing the primary pool settings")
+    void shouldRouteWhenReplicasAreConfigured() {
+        contextRunner
+                .withPropertyValues(
+                        "user.datasource.replicas.urls=jdbc:h2:mem:config-replica-1;DB_CLOSE_DELAY=-1, jdbc:h2:mem:config-replica-2;DB_CLOSE_DELAY=-1",
+                        "user.datasource.replicas.selection=least-connections")
+                .run(context -> {
+                    // Then
+                    assertInstanceOf(LazyConnectionDataSourceProxy.class, context.getBean(DataSource.class));
+                    ReplicaRoutingDataSource routing = context.getBean(ReplicaRoutingDataSource.class);
+                    assertEquals(3, routing.getResolvedDataSources().size());
+                    assertEquals(3, context.getBean("primaryDataSource", HikariDataSource.class)
+                            .getMaximumPoolSize());
+                    assertNotNull(context.getBean(ReadYourWritesInterceptor.class));
+                });
+    }
+}
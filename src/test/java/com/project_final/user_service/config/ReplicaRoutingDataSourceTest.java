@@ -0,0 +1,199 @@
+package com.project_final.user_service.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Replica Routing DataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replicaA;
+    private HikariDataSource replicaB;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        // Cada base H2 en memoria hace de un servidor distinto y sabe cómo se llama
+        primary = node("primary");
+        replicaA = node("replica-a");
+        replicaB = node("replica-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.resetCurrentThread();
+        if (routing != null) {
+            routing.close();
+        }
+        primary.close();
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a replica and writes to the primary")
+    void shouldRouteReadsToReplicaAndWritesToPrimary() {
+        // Given
+        route(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ZERO, replicaA);
+
+        // When
+        String read = readOnly.execute(status -> currentNode());
+        String written = readWrite.execute(status -> {
+            jdbcTemplate.update("UPDATE node SET writes = writes + 1");
+            return currentNode();
+        });
+
+        // Then
+        assertEquals("replica-a", read);
+        assertEquals("primary", written);
+    }
+
+    @Test
+    @DisplayName("Should alternate replicas in round-robin order")
+    void shouldAlternateReplicas() {
+        // Given
+        route(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ZERO, replicaA, replicaB);
+
+        // When
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> currentNode()));
+        }
+
+        // Then
+        assertEquals(List.of("replica-a", "replica-b", "replica-a", "replica-b"), nodes);
+    }
+
+    @Test
+    @DisplayName("Should pick the replica with fewer connections in use")
+    void shouldPickLeastBusyReplica() throws Exception {
+        // Given
+        route(ReplicaRoutingDataSource.Selection.LEAST_CONNECTIONS, Duration.ZERO, replicaA, replicaB);
+
+        // When
+        List<String> nodes = new ArrayList<>();
+        try (Connection busy = replicaA.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                nodes.add(readOnly.execute(status -> currentNode()));
+            }
+        }
+
+        // Then
+        assertEquals(List.of("replica-b", "replica-b", "replica-b"), nodes);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary within the window after a write on the same thread")
+    void shouldReadOwnWritesFromPrimary() {
+        // Given
+        route(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1), replicaA);
+        String beforeWrite = readOnly.execute(status -> currentNode());
+
+        // When
+        readWrite.execute(status -> jdbcTemplate.update("UPDATE node SET writes = writes + 1"));
+        String afterWrite = readOnly.execute(status -> currentNode());
+        ReplicaRoutingDataSource.resetCurrentThread();
+        String afterReset = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertEquals("replica-a", beforeWrite);
+        assertEquals("primary", afterWrite);
+        assertEquals("replica-a", afterReset);
+    }
+
+    @Test
+    @DisplayName("Should run reads inside onPrimary on the primary without pinning later reads")
+    void shouldReadFromPrimaryInsideOnPrimary() {
+        // Given
+        route(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1), replicaA);
+
+        // When
+        String inside = ReplicaRoutingDataSource.onPrimary(() -> readOnly.execute(status -> currentNode()));
+        String after = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertEquals("primary", inside);
+        assertEquals("replica-a", after);
+    }
+
+    @Test
+    @DisplayName("Should keep later requests of a client that wrote on the primary")
+    void shouldPinRecentWritersAcrossRequests() {
+        // Given
+        route(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1), replicaA);
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofMinutes(1), 100);
+        MockHttpServletRequest writer = request("cliente-1");
+        interceptor.preHandle(writer, new MockHttpServletResponse(), null);
+        readWrite.execute(status -> jdbcTemplate.update("UPDATE node SET writes = writes + 1"));
+        interceptor.afterCompletion(writer, new MockHttpServletResponse(), null, null);
+
+        // When
+        String sameClient = readInRequest(interceptor, request("cliente-1"));
+        String otherClient = readInRequest(interceptor, request("cliente-2"));
+
+        // Then
+        assertEquals("primary", sameClient);
+        assertEquals("replica-a", otherClient);
+    }
+
+    private String readInRequest(ReadYourWritesInterceptor interceptor, MockHttpServletRequest request) {
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        try {
+            return readOnly.execute(status -> currentNode());
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        }
+    }
+
+    private void route(ReplicaRoutingDataSource.Selection selection, Duration window, HikariDataSource... replicas) {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replicas), selection, window);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static MockHttpServletRequest request(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader(ReadYourWritesInterceptor.CLIENT_ID_HEADER, clientId);
+        return request;
+    }
+
+    private static HikariDataSource node(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(4);
+        config.setPoolName(name);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20), writes INT)");
+        jdbc.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,42 @@
+package com.project_final.user_service.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Virtual Threads Tests")
+class VirtualThreadsTest {
+
+    @Test
+    @DisplayName("Should detect virtual thread support from the running JVM")
+    void shouldDetectSupport() {
+        // When & Then
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    @DisplayName("Should run tasks on virtual threads or fail with a clear message")
+    void shouldCreateExecutorOnlyWhenSupported() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            // When & Then
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    VirtualThreads::newVirtualThreadPerTaskExecutor);
+            assertTrue(exception.getMessage().contains("Java 21"));
+            return;
+        }
+
+        // Given
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+
+        // When
+        String threadName = executor.submit(() -> Thread.currentThread().toString()).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertTrue(threadName.startsWith("VirtualThread"));
+    }
+}
@@ -1,8 +1,24 @@
 package com.project_final.user_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.config.ErrorMetrics;
+import com.project_final.user_service.config.JacksonConfig;
+import com.project_final.user_service.dto.BatchItemResultDTO;
+import com.project_final.user_service.dto.BatchResultDTO;
+import com.project_final.user_service.dto.CachedOrdersDTO;
 import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserChangeDTO;
+import com.project_final.user_service.dto.UserChangesPageDTO;
+import com.project_final.user_service.dto.UserCountDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupRequestDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.dto.UserVersionDTO;
+import com.project_final.user_service.exceptions.UserNotFoundException;
+import com.project_final.user_service.exceptions.UserPreconditionFailedException;
 import com.project_final.user_service.model.User;
+import com.project_final.user_service.service.UserExportService;
 import com.project_final.user_service.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,22 +26,32 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import(JacksonConfig.class)
 @DisplayName("User Controller Unit Tests")
 class UserControllerTest {
 
@@ -35,9 +61,18 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private ErrorMetrics errorMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
     private User testUser;
     private List<OrderDTO> testOrders;
 
@@ -45,6 +80,7 @@ class UserControllerTest {
     void setUp() {
         testUser = new User("Juan Pérez", "juan@example.com");
         testUser.setId(1L);
+        testUser.setVersion(0L);
 
         OrderDTO order1 = new OrderDTO(1L, 1L, 2, new BigDecimal("100.00"), LocalDateTime.now());
         OrderDTO order2 = new OrderDTO(2L, 2L, 1, new BigDecimal("50.00"), LocalDateTime.now());
@@ -62,11 +98,34 @@ class UserControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.user.id").value(1))
                 .andExpect(jsonPath("$.user.name").value("Juan Pérez"))
-                .andExpect(jsonPath("$.user.email").value("juan@example.com"));
+                .andExpect(jsonPath("$.user.email").value("juan@example.com"))
+                // Formato legacy por defecto: se mantienen los campos duplicados
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.email").value("juan@example.com"))
+                .andExpect(jsonPath("$.timestamp").exists());
 
         verify(userService).createUser(any(User.class));
     }
 
+    @Test
+    @DisplayName("Should bind only name and email when creating a user")
+    void shouldIgnoreServerAssignedFieldsOnCreate() throws Exception {
+        when(userService.createUser(any(User.class))).thenReturn(testUser);
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"id": 42, "version": 7, "name": "Juan Pérez", "email": "juan@example.com",
+                                 "createdAt": "2000-01-01T00:00:00", "updatedAt": "2000-01-01T00:00:00"}
+                                """))
+                .andExpect(status().isCreated());
+
+        verify(userService).createUser(argThat(user -> user.getId() == null && user.getVersion() == null
+                && "Juan Pérez".equals(user.getName()) && "juan@example.com".equals(user.getEmail())
+                && user.getCreatedAt().getYear() > 2000));
+    }
+
     @Test
     @DisplayName("Should return bad request when user creation fails")
     void shouldReturnBadRequestWhenUserCreationFails() throws Exception {
@@ -81,13 +140,36 @@ class UserControllerTest {
         verify(userService).createUser(any(User.class));
     }
 
+    @Test
+    @DisplayName("Should create users in batch")
+    void shouldCreateUsersInBatch() throws Exception {
+        BatchResultDTO result = new BatchResultDTO(List.of(
+                new BatchItemResultDTO(0, "juan@example.com", BatchItemResultDTO.Status.CREATED, 1L, null),
+                BatchItemResultDTO.failed(1, "ana@example.com", BatchItemResultDTO.Status.ALREADY_EXISTS, "Ya existe")));
+        when(userService.createUsersBatch(anyList(), eq(false))).thenReturn(result);
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testUser, new User("Ana García", "ana@example.com")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].userId").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("ALREADY_EXISTS"));
+
+        verify(userService).createUsersBatch(anyList(), eq(false));
+    }
+
     @Test
     @DisplayName("Should get all users")
     void shouldGetAllUsers() throws Exception {
-        List<User> users = Arrays.asList(testUser, new User("Ana García", "ana@example.com"));
+        List<UserDTO> users = Arrays.asList(UserDTO.from(testUser),
+                UserDTO.from(new User("Ana García", "ana@example.com")));
         when(userService.getAllUsers()).thenReturn(users);
 
-        mockMvc.perform(get("/api/users"))
+        mockMvc.perform(get("/api/users")
+                        .param("unpaged", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].name").value("Juan Pérez"))
@@ -96,6 +178,69 @@ class UserControllerTest {
         verify(userService).getAllUsers();
     }
 
+    @Test
+    @DisplayName("Should get users page by cursor")
+    void shouldGetUsersPageByCursor() throws Exception {
+        when(userService.getUsersPage("abc", 1)).thenReturn(new UserPageDTO(List.of(UserDTO.from(testUser)), "next", 1));
+
+        mockMvc.perform(get("/api/users")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name").value("Juan Pérez"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(userService).getUsersPage("abc", 1);
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("Should serve the change feed with upserts, tombstones and a resumable cursor")
+    void shouldServeChangeFeed() throws Exception {
+        LocalDateTime deletedAt = LocalDateTime.of(2024, 1, 2, 0, 0);
+        when(userService.getChanges("abc", 2)).thenReturn(new UserChangesPageDTO(
+                List.of(UserChangeDTO.upsert(UserDTO.from(testUser)), UserChangeDTO.delete(5L, deletedAt)),
+                "next", false, 2));
+
+        mockMvc.perform(get("/api/users/changes")
+                        .param("cursor", "abc")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+                .andExpect(jsonPath("$.changes[0].user.name").value("Juan Pérez"))
+                .andExpect(jsonPath("$.changes[1].type").value("DELETE"))
+                .andExpect(jsonPath("$.changes[1].id").value(5))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @DisplayName("Should stream users as NDJSON")
+    void shouldStreamUsersAsNdjson() throws Exception {
+        when(userExportService.exportNdjson(eq(LocalDateTime.of(2024, 1, 1, 0, 0)), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(1);
+                    out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+                    return 2L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/users/export")
+                        .param("since", "2024-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // La exportación no hereda el timeout asíncrono global
+        assertEquals(-1L, result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
     @Test
     @DisplayName("Should get user by ID")
     void shouldGetUserById() throws Exception {
@@ -105,11 +250,166 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Juan Pérez"))
-                .andExpect(jsonPath("$.email").value("juan@example.com"));
+                .andExpect(jsonPath("$.email").value("juan@example.com"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"));
 
         verify(userService).getUserById(1L);
     }
 
+    @Test
+    @DisplayName("Should return a user as CBOR when the client accepts it")
+    void shouldGetUserAsCbor() throws Exception {
+        testUser.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000));
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+
+        byte[] body = mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        User decoded = cborConverter.getObjectMapper().readValue(body, User.class);
+        assertEquals("Juan Pérez", decoded.getName());
+        assertEquals(testUser.getUpdatedAt(), decoded.getUpdatedAt());
+        assertTrue(body.length < objectMapper.writeValueAsBytes(testUser).length);
+    }
+
+    @Test
+    @DisplayName("Should keep JSON as the default representation")
+    void shouldKeepJsonByDefault() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+
+        mockMvc.perform(get("/api/users/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Should accept CBOR request bodies")
+    void shouldCreateUserFromCbor() throws Exception {
+        when(userService.createUser(any(User.class))).thenReturn(testUser);
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(cborConverter.getObjectMapper().writeValueAsBytes(testUser)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.user.email").value("juan@example.com"));
+
+        verify(userService).createUser(argThat(user -> "Juan Pérez".equals(user.getName())));
+    }
+
+    @Test
+    @DisplayName("Should return orders as CBOR keeping decimal amounts exact")
+    void shouldGetOrdersAsCbor() throws Exception {
+        when(userService.getUserOrdersWithFreshness(1L))
+                .thenReturn(new CachedOrdersDTO(testOrders, Instant.now(), false));
+
+        byte[] body = mockMvc.perform(get("/api/users/1/orders").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        OrderDTO[] decoded = cborConverter.getObjectMapper().readValue(body, OrderDTO[].class);
+        assertEquals(2, decoded.length);
+        assertEquals(new BigDecimal("100.00"), decoded[0].getTotalAmount());
+        assertEquals(testOrders.get(1).getCreatedAt(), decoded[1].getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged user without loading it")
+    void shouldAnswerNotModifiedWithoutLoadingUser() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+        when(userService.getUserVersion(1L)).thenReturn(Optional.of(new UserVersionDTO(0L, testUser.getUpdatedAt())));
+        String etag = mockMvc.perform(get("/api/users/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        clearInvocations(userService);
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should return the user again once it has been modified")
+    void shouldReturnUserWhenModified() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+        String etag = mockMvc.perform(get("/api/users/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        testUser.setVersion(1L);
+        testUser.setUpdatedAt(testUser.getUpdatedAt().plusSeconds(1));
+        when(userService.getUserVersion(1L)).thenReturn(Optional.of(new UserVersionDTO(1L, testUser.getUpdatedAt())));
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    @DisplayName("Should give JSON and CBOR their own ETags and vary by Accept")
+    void shouldSeparateETagsByFormat() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+        when(userService.getUserVersion(1L)).thenReturn(Optional.of(new UserVersionDTO(0L, testUser.getUpdatedAt())));
+        String jsonETag = mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+        String cborETag = mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // El ETag de JSON no valida la copia CBOR: se devuelve el cuerpo completo
+        mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+
+        assertEquals("\"u1-v0\"", jsonETag);
+        assertEquals("\"u1-v0-cbor\"", cborETag);
+    }
+
+    @Test
+    @DisplayName("Should give JSON and CBOR pages their own ETags")
+    void shouldSeparatePageETagsByFormat() throws Exception {
+        when(userService.getUsersPage(null, null))
+                .thenReturn(new UserPageDTO(List.of(UserDTO.from(testUser)), "next", 1));
+        String jsonETag = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged users page")
+    void shouldAnswerNotModifiedForUnchangedPage() throws Exception {
+        when(userService.getUsersPage(null, null))
+                .thenReturn(new UserPageDTO(List.of(UserDTO.from(testUser)), "next", 1));
+        String etag = mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        User renamed = new User("Juan Renombrado", "juan@example.com");
+        renamed.setId(1L);
+        renamed.setUpdatedAt(testUser.getUpdatedAt().plusSeconds(1));
+        when(userService.getUsersPage(null, null))
+                .thenReturn(new UserPageDTO(List.of(UserDTO.from(renamed)), "next", 1));
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Juan Renombrado"));
+    }
+
     @Test
     @DisplayName("Should return not found when user doesn't exist by ID")
     void shouldReturnNotFoundWhenUserDoesntExistById() throws Exception {
@@ -146,10 +446,27 @@ class UserControllerTest {
         verify(userService).getUserByEmail("nonexistent@example.com");
     }
 
+    @Test
+    @DisplayName("Should resolve many users keyed by the requested id and email")
+    void shouldLookupUsersKeyedByInput() throws Exception {
+        UserLookupResultDTO result = new UserLookupResultDTO(
+                Map.of(1L, testUser), Map.of("juan@example.com", testUser), List.of(2L), List.of());
+        when(userService.lookupUsers(any(UserLookupRequestDTO.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2],\"emails\":[\"juan@example.com\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byId['1'].name").value("Juan Pérez"))
+                .andExpect(jsonPath("$.byEmail['juan@example.com'].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(2));
+
+        verify(userService).lookupUsers(any(UserLookupRequestDTO.class));
+    }
+
     @Test
     @DisplayName("Should delete user successfully when user exists")
     void shouldDeleteUserSuccessfullyWhenUserExists() throws Exception {
-        when(userService.getUserById(1L)).thenReturn(Optional.of(new User()));
         doNothing().when(userService).deleteUser(1L);
 
         mockMvc.perform(delete("/api/users/1"))
@@ -164,30 +481,31 @@ class UserControllerTest {
         User user = new User("testuser", "test@example.com");
         user.setId(1L); // asigna el ID con el setter
 
-        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
         doNothing().when(userService).deleteUser(1L);
 
         mockMvc.perform(delete("/api/users/1"))
                 .andExpect(status().isNoContent());
 
         verify(userService).deleteUser(1L);
+        verify(userService, never()).getUserById(anyLong());
     }
 
     @Test
     @DisplayName("Should return not found when deleting non-existent user")
     void shouldReturnNotFoundWhenDeletingNonExistentUser() throws Exception {
-        when(userService.getUserById(999L)).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(999L)).when(userService).deleteUser(999L);
 
         mockMvc.perform(delete("/api/users/999"))
                 .andExpect(status().isNotFound());
 
-        verify(userService, never()).deleteUser(anyLong());
+        verify(userService).deleteUser(999L);
+        verify(userService, never()).getUserById(anyLong());
     }
 
     @Test
     @DisplayName("Should return not found when updating non-existent user")
     void shouldReturnNotFoundWhenUpdatingNonExistentUser() throws Exception {
-        when(userService.updateUser(eq(999L), any(User.class)))
+        when(userService.updateUser(eq(999L), any(User.class), isNull()))
                 .thenThrow(new RuntimeException("Usuario no encontrado"));
 
         mockMvc.perform(put("/api/users/999")
@@ -195,14 +513,76 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(testUser)))
                 .andExpect(status().isNotFound());
 
-        verify(userService).updateUser(eq(999L), any(User.class));
+        verify(userService).updateUser(eq(999L), any(User.class), isNull());
+    }
+
+    @Test
+    @DisplayName("Should update user when If-Match carries the current version")
+    void shouldUpdateUserWithMatchingVersion() throws Exception {
+        User updated = new User("Juan Carlos", "juan@example.com");
+        updated.setId(1L);
+        updated.setVersion(1L);
+        when(userService.updateUser(eq(1L), any(User.class), eq(0L))).thenReturn(updated);
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"u1-v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"u1-v1\""))
+                .andExpect(jsonPath("$.user.name").value("Juan Carlos"));
+    }
+
+    @Test
+    @DisplayName("Should accept the CBOR ETag as If-Match")
+    void shouldAcceptCborETagAsIfMatch() throws Exception {
+        User updated = new User("Juan Carlos", "juan@example.com");
+        updated.setId(1L);
+        updated.setVersion(1L);
+        when(userService.updateUser(eq(1L), any(User.class), eq(0L))).thenReturn(updated);
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"u1-v0-cbor\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"u1-v1-cbor\""));
+    }
+
+    @Test
+    @DisplayName("Should answer 412 when If-Match is stale")
+    void shouldRejectStaleUpdates() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), eq(0L)))
+                .thenThrow(new UserPreconditionFailedException(1L, 0L, 1L));
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"u1-v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("Should answer 412 for weak or foreign ETags without calling the service")
+    void shouldRejectWeakOrForeignETags() throws Exception {
+        for (String ifMatch : List.of("W/\"u1-v0\"", "\"u2-v0\"", "\"garbage\"")) {
+            mockMvc.perform(put("/api/users/1")
+                            .header("If-Match", ifMatch)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(testUser)))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        verify(userService, never()).updateUser(anyLong(), any(User.class), any());
     }
 
     @Test
     @DisplayName("Should search users by name")
     void shouldSearchUsersByName() throws Exception {
-        List<User> users = Arrays.asList(testUser);
-        when(userService.searchUsersByName("Juan")).thenReturn(users);
+        List<UserDTO> users = Arrays.asList(UserDTO.from(testUser));
+        when(userService.searchUsers("Juan", null, false)).thenReturn(users);
 
         mockMvc.perform(get("/api/users/search")
                         .param("name", "Juan"))
@@ -210,44 +590,114 @@ class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].name").value("Juan Pérez"));
 
-        verify(userService).searchUsersByName("Juan");
+        verify(userService).searchUsers("Juan", null, false);
+    }
+
+    @Test
+    @DisplayName("Should pass search limit and email flag to the service")
+    void shouldPassSearchOptions() throws Exception {
+        when(userService.searchUsers("example", 5, true)).thenReturn(Arrays.asList(UserDTO.from(testUser)));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("name", "example")
+                        .param("limit", "5")
+                        .param("includeEmail", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(userService).searchUsers("example", 5, true);
     }
 
     @Test
     @DisplayName("Should get user orders successfully")
     void shouldGetUserOrdersSuccessfully() throws Exception {
-        when(userService.getUserOrders(1L)).thenReturn(testOrders);
+        when(userService.getUserOrdersWithFreshness(1L))
+                .thenReturn(new CachedOrdersDTO(testOrders, Instant.now(), false));
 
         mockMvc.perform(get("/api/users/1/orders"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[1].id").value(2));
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(header().doesNotExist("Warning"));
 
-        verify(userService).getUserOrders(1L);
+        verify(userService).getUserOrdersWithFreshness(1L);
     }
 
     @Test
     @DisplayName("Should return service unavailable when order service fails")
     void shouldReturnServiceUnavailableWhenOrderServiceFails() throws Exception {
-        when(userService.getUserOrders(1L))
+        when(userService.getUserOrdersWithFreshness(1L))
                 .thenThrow(new RuntimeException("Error al obtener órdenes"));
 
         mockMvc.perform(get("/api/users/1/orders"))
                 .andExpect(status().isServiceUnavailable());
 
-        verify(userService).getUserOrders(1L);
+        verify(userService).getUserOrdersWithFreshness(1L);
+        verify(errorMetrics).record(any(RuntimeException.class));
+    }
+
+    @Test
+    @DisplayName("Should flag stale orders with Warning and Age headers")
+    void shouldFlagStaleOrders() throws Exception {
+        when(userService.getUserOrdersWithFreshness(1L))
+                .thenReturn(new CachedOrdersDTO(testOrders, Instant.now().minusSeconds(30), true));
+
+        mockMvc.perform(get("/api/users/1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(header().exists("Age"));
     }
 
     @Test
     @DisplayName("Should get total users count")
     void shouldGetTotalUsersCount() throws Exception {
-        when(userService.getTotalUsers()).thenReturn(5L);
+        when(userService.getUserCount("exact")).thenReturn(new UserCountDTO(5L, UserCountDTO.Mode.EXACT));
 
         mockMvc.perform(get("/api/users/stats/total"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count-Mode", "exact"))
                 .andExpect(content().string("5"));
 
-        verify(userService).getTotalUsers();
+        verify(userService).getUserCount("exact");
+    }
+
+    @Test
+    @DisplayName("Should flag approximate user counts")
+    void shouldFlagApproximateUserCount() throws Exception {
+        when(userService.getUserCount("approximate"))
+                .thenReturn(new UserCountDTO(1_000_000L, UserCountDTO.Mode.APPROXIMATE));
+
+        mockMvc.perform(get("/api/users/stats/total")
+                        .param("mode", "approximate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count-Mode", "approximate"))
+                .andExpect(content().string("1000000"));
+    }
+
+    @Test
+    @DisplayName("Should get order client statistics")
+    void shouldGetOrderClientStatistics() throws Exception {
+        when(userService.getOrderClientStats()).thenReturn(Map.of("circuitBreaker", Map.of("state", "OPEN")));
+
+        mockMvc.perform(get("/api/users/stats/order-client"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.circuitBreaker.state").value("OPEN"));
+
+        verify(userService).getOrderClientStats();
+    }
+
+    @Test
+    @DisplayName("Should get cache statistics")
+    void shouldGetCacheStatistics() throws Exception {
+        when(userService.getCacheStats()).thenReturn(Map.of("byId", Map.of("hits", 3L, "misses", 1L)));
+
+        mockMvc.perform(get("/api/users/stats/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byId.hits").value(3))
+                .andExpect(jsonPath("$.byId.misses").value(1));
+
+        verify(userService).getCacheStats();
     }
 }
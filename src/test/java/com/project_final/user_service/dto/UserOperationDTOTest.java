@@ -0,0 +1,72 @@
+package com.project_final.user_service.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.project_final.user_service.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Operation DTO Serialization Tests")
+class UserOperationDTOTest {
+
+    private ObjectMapper objectMapper;
+    private UserDTO user;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        User entity = new User("Juan Pérez", "juan@example.com");
+        entity.setId(1L);
+        user = UserDTO.from(entity);
+    }
+
+    @Test
+    @DisplayName("Should keep the previous JSON shape in legacy mode")
+    void shouldKeepLegacyShape() {
+        // When
+        JsonNode json = objectMapper.valueToTree(UserOperationDTO.success("Usuario creado correctamente", user, true));
+
+        // Then
+        assertEquals(List.of("success", "message", "user", "userId", "name", "email", "timestamp"), fieldNames(json));
+        assertEquals(1L, json.get("userId").asLong());
+        assertEquals("juan@example.com", json.get("user").get("email").asText());
+    }
+
+    @Test
+    @DisplayName("Should drop duplicated fields in compact mode")
+    void shouldDropDuplicatedFieldsInCompactMode() {
+        // When
+        JsonNode json = objectMapper.valueToTree(UserOperationDTO.success("Usuario creado correctamente", user, false));
+
+        // Then
+        assertEquals(List.of("success", "message", "user"), fieldNames(json));
+        assertEquals(List.of("id", "name", "email", "createdAt", "updatedAt"), fieldNames(json.get("user")));
+    }
+
+    @Test
+    @DisplayName("Should serialize failures without a user")
+    void shouldSerializeFailures() {
+        // When
+        JsonNode legacy = objectMapper.valueToTree(UserOperationDTO.failure("Error al actualizar usuario", 7L, "boom", true));
+        JsonNode compact = objectMapper.valueToTree(UserOperationDTO.failure("Error al crear usuario", null, "boom", false));
+
+        // Then
+        assertEquals(List.of("success", "message", "userId", "error", "timestamp"), fieldNames(legacy));
+        assertEquals(List.of("success", "message", "error"), fieldNames(compact));
+        assertFalse(compact.get("success").asBoolean());
+    }
+
+    private static List<String> fieldNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
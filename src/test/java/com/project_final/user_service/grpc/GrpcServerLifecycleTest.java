@@ -0,0 +1,55 @@
+package com.project_final.user_service.grpc;
+
+import com.project_final.user_service.config.ErrorMetrics;
+import com.project_final.user_service.grpc.v1.GetUserRequest;
+import com.project_final.user_service.grpc.v1.UserLookupServiceGrpc;
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.service.UserService;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("gRPC Server Lifecycle Tests")
+class GrpcServerLifecycleTest {
+
+    @Test
+    @DisplayName("Server should answer over HTTP/2 on its own port and stop cleanly")
+    void server_ShouldStartServeAndStop() throws Exception {
+        // Given
+        UserService userService = mock(UserService.class);
+        User user = new User("Juan Pérez", "juan@example.com");
+        user.setId(1L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+        GrpcServerLifecycle lifecycle = new GrpcServerLifecycle(
+                new UserLookupGrpcService(userService, new ErrorMetrics(new SimpleMeterRegistry())).bindService(),
+                0, Duration.ofSeconds(1), null);
+
+        // When
+        lifecycle.start();
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", lifecycle.getPort()).usePlaintext().build();
+        try {
+            String name = UserLookupServiceGrpc.newBlockingStub(channel)
+                    .getUser(GetUserRequest.newBuilder().setId(1L).build())
+                    .getName();
+
+            // Then
+            assertTrue(lifecycle.isRunning());
+            assertTrue(lifecycle.getPort() > 0);
+            assertEquals("Juan Pérez", name);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            lifecycle.stop();
+        }
+        assertFalse(lifecycle.isRunning());
+        assertEquals(-1, lifecycle.getPort());
+    }
+}
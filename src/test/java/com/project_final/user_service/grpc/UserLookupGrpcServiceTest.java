@@ -0,0 +1,292 @@
+package com.project_final.user_service.grpc;
+
+import com.project_final.user_service.config.ErrorMetrics;
+import com.project_final.user_service.dto.CachedOrdersDTO;
+import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupRequestDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.exceptions.OrderServiceException;
+import com.project_final.user_service.exceptions.UserNotFoundException;
+import com.project_final.user_service.exceptions.UserValidationException;
+import com.project_final.user_service.grpc.v1.BatchGetUsersRequest;
+import com.project_final.user_service.grpc.v1.BatchGetUsersResponse;
+import com.project_final.user_service.grpc.v1.GetUserOrdersRequest;
+import com.project_final.user_service.grpc.v1.GetUserOrdersResponse;
+import com.project_final.user_service.grpc.v1.GetUserRequest;
+import com.project_final.user_service.grpc.v1.ListUsersRequest;
+import com.project_final.user_service.grpc.v1.UserLookupServiceGrpc;
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.service.UserService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Lookup gRPC Service Tests")
+class UserLookupGrpcServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    private Server server;
+    private ManagedChannel channel;
+    private UserLookupServiceGrpc.UserLookupServiceBlockingStub stub;
+
+    private final LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 30, 15, 500_000_000);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new UserLookupGrpcService(userService, new ErrorMetrics(new SimpleMeterRegistry())))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = UserLookupServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("GetUser should return the user with version and timestamps")
+    void getUser_ShouldReturnUser() {
+        // Given
+        User user = user(1L, "Juan Pérez", "juan@example.com");
+        user.setVersion(4L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        com.project_final.user_service.grpc.v1.User response = stub.getUser(GetUserRequest.newBuilder().setId(1L).build());
+
+        // Then
+        assertEquals(1L, response.getId());
+        assertEquals("Juan Pérez", response.getName());
+        assertEquals("juan@example.com", response.getEmail());
+        assertTrue(response.hasVersion());
+        assertEquals(4L, response.getVersion());
+        Instant expected = createdAt.atZone(ZoneId.systemDefault()).toInstant();
+        assertEquals(expected.getEpochSecond(), response.getCreatedAt().getSeconds());
+        assertEquals(500_000_000, response.getCreatedAt().getNanos());
+    }
+
+    @Test
+    @DisplayName("GetUser should fail with NOT_FOUND when the user does not exist")
+    void getUser_WhenMissing_ShouldReturnNotFound() {
+        // Given
+        when(userService.getUserById(99L)).thenReturn(Optional.empty());
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUser(GetUserRequest.newBuilder().setId(99L).build()));
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, error.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("BatchGetUsers should return found users keyed by id and email plus the missing keys")
+    void batchGetUsers_ShouldReturnFoundAndMissing() {
+        // Given
+        User first = user(1L, "Uno", "uno@example.com");
+        User second = user(2L, "Dos", "dos@example.com");
+        when(userService.lookupUsers(any(UserLookupRequestDTO.class))).thenReturn(new UserLookupResultDTO(
+                Map.of(1L, first), Map.of("dos@example.com", second), List.of(3L), List.of("nadie@example.com")));
+
+        // When
+        BatchGetUsersResponse response = stub.batchGetUsers(BatchGetUsersRequest.newBuilder()
+                .addAllIds(List.of(1L, 3L))
+                .addAllEmails(List.of("dos@example.com", "nadie@example.com"))
+                .build());
+
+        // Then
+        assertEquals("Uno", response.getByIdOrThrow(1L).getName());
+        assertEquals(2L, response.getByEmailOrThrow("dos@example.com").getId());
+        assertEquals(List.of(3L), response.getMissingIdsList());
+        assertEquals(List.of("nadie@example.com"), response.getMissingEmailsList());
+        verify(userService).lookupUsers(argThat(request ->
+                request.getIds().equals(List.of(1L, 3L))
+                        && request.getEmails().equals(List.of("dos@example.com", "nadie@example.com"))));
+    }
+
+    @Test
+    @DisplayName("BatchGetUsers should fail with INVALID_ARGUMENT when too many keys are requested")
+    void batchGetUsers_WhenTooManyKeys_ShouldReturnInvalidArgument() {
+        // Given
+        when(userService.lookupUsers(any(UserLookupRequestDTO.class)))
+                .thenThrow(new UserValidationException("No se pueden buscar más de 2 usuarios a la vez"));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.batchGetUsers(BatchGetUsersRequest.newBuilder().addAllIds(List.of(1L, 2L, 3L)).build()));
+
+        // Then
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("ListUsers should stream every page following the cursors")
+    void listUsers_ShouldStreamAllPages() {
+        // Given
+        when(userService.getUsersPage(null, 2)).thenReturn(page("c1", 1, 2));
+        when(userService.getUsersPage("c1", 2)).thenReturn(page("c2", 3, 4));
+        when(userService.getUsersPage("c2", 2)).thenReturn(page(null, 5));
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        stub.listUsers(ListUsersRequest.newBuilder().setPageSize(2).build())
+                .forEachRemaining(user -> ids.add(user.getId()));
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids);
+    }
+
+    @Test
+    @DisplayName("ListUsers should stop at max_users without reading more rows than needed")
+    void listUsers_WithMaxUsers_ShouldStopEarly() {
+        // Given
+        when(userService.getUsersPage("inicio", 2)).thenReturn(page("c1", 11, 12));
+        when(userService.getUsersPage("c1", 1)).thenReturn(page("c2", 13));
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        stub.listUsers(ListUsersRequest.newBuilder().setCursor("inicio").setPageSize(2).setMaxUsers(3).build())
+                .forEachRemaining(user -> ids.add(user.getId()));
+
+        // Then
+        assertEquals(List.of(11L, 12L, 13L), ids);
+        verify(userService, never()).getUsersPage(eq("c2"), any());
+    }
+
+    @Test
+    @DisplayName("ListUsers should not read the next page until the client consumes the current one")
+    void listUsers_ShouldRespectClientFlowControl() {
+        // Given
+        when(userService.getUsersPage(null, 2)).thenReturn(page("c1", 1, 2));
+
+        // When: el iterador bloqueante solo pide un mensaje más por cada uno leído
+        Iterator<com.project_final.user_service.grpc.v1.User> users =
+                stub.listUsers(ListUsersRequest.newBuilder().setPageSize(2).build());
+        assertEquals(1L, users.next().getId());
+
+        // Then
+        verify(userService, after(200).times(1)).getUsersPage(any(), any());
+        verify(userService, never()).getUsersPage(eq("c1"), any());
+    }
+
+    @Test
+    @DisplayName("ListUsers should fail with INVALID_ARGUMENT for an invalid cursor")
+    void listUsers_WithInvalidCursor_ShouldReturnInvalidArgument() {
+        // Given
+        when(userService.getUsersPage("roto", null))
+                .thenThrow(new UserValidationException("cursor", "El cursor no es válido"));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.listUsers(ListUsersRequest.newBuilder().setCursor("roto").build()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("GetUserOrders should return orders with exact amounts and freshness")
+    void getUserOrders_ShouldReturnOrders() {
+        // Given
+        Instant fetchedAt = Instant.parse("2024-03-01T10:00:00Z");
+        OrderDTO order = new OrderDTO(7L, 1L, "PENDING", new BigDecimal("99.950"), createdAt, createdAt, "Pedido", 2);
+        when(userService.getUserOrdersWithFreshness(1L)).thenReturn(new CachedOrdersDTO(List.of(order), fetchedAt, true));
+
+        // When
+        GetUserOrdersResponse response = stub.getUserOrders(GetUserOrdersRequest.newBuilder().setUserId(1L).build());
+
+        // Then
+        assertTrue(response.getStale());
+        assertEquals(fetchedAt.getEpochSecond(), response.getFetchedAt().getSeconds());
+        assertEquals(1, response.getOrdersCount());
+        assertEquals("99.950", response.getOrders(0).getTotalAmount());
+        assertEquals("PENDING", response.getOrders(0).getStatus());
+        assertEquals(2, response.getOrders(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("GetUserOrders should map service errors to NOT_FOUND and UNAVAILABLE")
+    void getUserOrders_ShouldMapErrors() {
+        // Given
+        when(userService.getUserOrdersWithFreshness(1L)).thenThrow(new UserNotFoundException(1L));
+        when(userService.getUserOrdersWithFreshness(2L)).thenThrow(new OrderServiceException("Order Service no disponible"));
+
+        // When
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUserOrders(GetUserOrdersRequest.newBuilder().setUserId(1L).build()));
+        StatusRuntimeException unavailable = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUserOrders(GetUserOrdersRequest.newBuilder().setUserId(2L).build()));
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+        assertEquals(Status.Code.UNAVAILABLE, unavailable.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("Unexpected errors should be returned as INTERNAL without details")
+    void unexpectedError_ShouldReturnInternal() {
+        // Given
+        when(userService.getUserById(1L)).thenThrow(new IllegalStateException("conexión perdida"));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUser(GetUserRequest.newBuilder().setId(1L).build()));
+
+        // Then
+        assertEquals(Status.Code.INTERNAL, error.getStatus().getCode());
+        assertEquals("Error interno del servidor", error.getStatus().getDescription());
+    }
+
+    private User user(Long id, String name, String email) {
+        User user = new User(name, email);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(createdAt);
+        return user;
+    }
+
+    private UserPageDTO page(String nextCursor, long... ids) {
+        List<UserDTO> items = new ArrayList<>();
+        for (long id : ids) {
+            items.add(new UserDTO(id, "Usuario " + id, "usuario" + id + "@example.com", createdAt, createdAt));
+        }
+        return new UserPageDTO(items, nextCursor, ids.length);
+    }
+}
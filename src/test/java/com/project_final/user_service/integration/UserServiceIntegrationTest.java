@@ -3,6 +3,7 @@ package com.project_final.user_service.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project_final.user_service.model.User;
 import com.project_final.user_service.repositories.UserRepository;
+import com.project_final.user_service.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -32,7 +33,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"user.grpc.enabled=true", "user.grpc.port=0"})
 @ActiveProfiles("test")
 @Transactional
 @Rollback // Esta anotación asegura que cada test haga rollback automáticamente
@@ -48,6 +49,9 @@ class UserServiceIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private WebApplicationContext webApplicationContext;
 
@@ -108,7 +112,7 @@ class UserServiceIntegrationTest {
         // 6. Get all users
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items.length()").value(1));
 
         // 7. Delete user
         mockMvc.perform(delete("/api/users/" + savedUser.getId()))
@@ -129,6 +133,8 @@ class UserServiceIntegrationTest {
         userRepository.save(user1);
         userRepository.save(user2);
         userRepository.save(user3);
+        // Guardados directamente en el repositorio: se añaden al índice de búsqueda al recargarlo
+        userService.loadIndexes();
 
         // Test search by name
         mockMvc.perform(get("/api/users/search")
@@ -155,6 +161,8 @@ class UserServiceIntegrationTest {
         userRepository.save(new User("User 1", "user1.stats@example.com"));
         userRepository.save(new User("User 2", "user2.stats@example.com"));
         userRepository.save(new User("User 3", "user3.stats@example.com"));
+        // Guardados directamente en el repositorio: el contador se entera al reconciliar
+        userService.reconcileUserCount();
 
         // Test total users count
         mockMvc.perform(get("/api/users/stats/total"))
@@ -0,0 +1,125 @@
+package com.project_final.user_service.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Adaptive Concurrency Limit Tests")
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    @DisplayName("Should reject requests beyond the current limit without queuing")
+    void shouldRejectBeyondLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("database", 2, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // When
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, limit.getInFlight());
+        assertEquals(1, limit.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should grow additively while the limit is used and responses are fast")
+    void shouldGrowWhenSaturatedAndFast() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("database", 4, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // When: varias ventanas completas con el límite ocupado
+        for (int window = 0; window < 10; window++) {
+            int permits = limit.getLimit();
+            for (int i = 0; i < permits; i++) {
+                assertTrue(limit.tryAcquire());
+            }
+            for (int i = 0; i < permits; i++) {
+                limit.release(FAST, false);
+            }
+        }
+
+        // Then
+        assertTrue(limit.getLimit() >= 6, "límite " + limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should not grow when the limit is barely used")
+    void shouldNotGrowWhenIdle() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("database", 10, 1, 100, Duration.ofMillis(100), 0.5);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+
+        // Then
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should back off once per latency threshold on slow or failed responses")
+    void shouldBackOffOnSlowOrFailedResponses() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("order-service", 16, 2, 50, Duration.ofMinutes(1), 0.5);
+
+        // When: una ráfaga de respuestas lentas y fallidas dentro del mismo umbral
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(SLOW, false);
+        limit.release(SLOW, false);
+        limit.release(FAST, true);
+
+        // Then
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should never go below the minimum limit")
+    void shouldRespectMinimum() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("order-service", 4, 3, 10, Duration.ZERO, 0.5);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, true);
+        }
+
+        // Then
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should publish limit, in-flight and rejections per group")
+    void shouldPublishMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("database", 1, 1, 10, Duration.ofMillis(100), 0.5);
+        limit.bindTo(registry);
+
+        // When
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        // Then
+        assertEquals(1.0, registry.get("users.concurrency.limit").tag("group", "database").gauge().value());
+        assertEquals(1.0, registry.get("users.concurrency.in-flight").tag("group", "database").gauge().value());
+        assertEquals(1.0, registry.get("users.concurrency.rejected").tag("group", "database").functionCounter().count());
+    }
+}
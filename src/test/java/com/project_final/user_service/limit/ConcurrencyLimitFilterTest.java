@@ -0,0 +1,141 @@
+package com.project_final.user_service.limit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Concurrency Limit Filter Tests")
+class ConcurrencyLimitFilterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private AdaptiveConcurrencyLimit databaseLimit;
+    private AdaptiveConcurrencyLimit orderServiceLimit;
+    private AdaptiveConcurrencyLimit bulkLimit;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        databaseLimit = new AdaptiveConcurrencyLimit("database", 1, 1, 10, Duration.ofSeconds(1), 0.5);
+        orderServiceLimit = new AdaptiveConcurrencyLimit("order-service", 1, 1, 10, Duration.ofSeconds(1), 0.5);
+        bulkLimit = new AdaptiveConcurrencyLimit("bulk", 1, 1, 10, Duration.ofSeconds(5), 0.5);
+        filter = new ConcurrencyLimitFilter(databaseLimit, orderServiceLimit, bulkLimit, Duration.ofSeconds(2), objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 and Retry-After when the limit is taken")
+    void shouldRejectWithRetryAfter() throws Exception {
+        // Given
+        assertTrue(databaseLimit.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), response, chain);
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertEquals("SERVICE_OVERLOADED", body.get("errorCode").asText());
+        assertEquals(1, databaseLimit.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should keep database and order-service endpoints on separate limits")
+    void shouldSeparateLimitGroups() throws Exception {
+        // Given: Order Service saturado
+        assertTrue(orderServiceLimit.tryAcquire());
+        MockHttpServletResponse orders = new MockHttpServletResponse();
+        MockHttpServletResponse user = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1/orders"), orders, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), user, new MockFilterChain());
+
+        // Then
+        assertEquals(503, orders.getStatus());
+        assertEquals(200, user.getStatus());
+        assertEquals(0, databaseLimit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should leave the NDJSON export outside the limits")
+    void shouldNotLimitExport() throws Exception {
+        // Given
+        assertTrue(databaseLimit.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/export"), response, new MockFilterChain());
+
+        // Then
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should keep slow bulk requests from shrinking the limit of point reads")
+    void shouldNotShedPointReadsUnderBulkTraffic() throws Exception {
+        // Given: umbral de 5 ms para las lecturas puntuales; las cargas masivas tardan 20 ms
+        databaseLimit = new AdaptiveConcurrencyLimit("database", 4, 1, 10, Duration.ofMillis(5), 0.5);
+        filter = new ConcurrencyLimitFilter(databaseLimit, orderServiceLimit, bulkLimit, Duration.ofSeconds(1), objectMapper);
+        MockFilterChain slow = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/users/batch"), new MockHttpServletResponse(), slow);
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/users/lookup"), new MockHttpServletResponse(), slow);
+        }
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), read, new MockFilterChain());
+
+        // Then
+        assertEquals(200, read.getStatus());
+        assertEquals(4, databaseLimit.getLimit());
+        assertEquals(0, databaseLimit.getRejected());
+        assertEquals(0, bulkLimit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should release the permit and back off when the request fails")
+    void shouldReleaseOnFailure() {
+        // Given
+        databaseLimit = new AdaptiveConcurrencyLimit("database", 4, 1, 10, Duration.ofSeconds(1), 0.5);
+        filter = new ConcurrencyLimitFilter(databaseLimit, orderServiceLimit, bulkLimit, Duration.ofSeconds(1), objectMapper);
+        MockFilterChain failing = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response)
+                    throws ServletException {
+                throw new ServletException("boom");
+            }
+        };
+
+        // When
+        assertThrows(ServletException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/users/1"), new MockHttpServletResponse(), failing));
+
+        // Then
+        assertEquals(0, databaseLimit.getInFlight());
+        assertEquals(2, databaseLimit.getLimit());
+    }
+}
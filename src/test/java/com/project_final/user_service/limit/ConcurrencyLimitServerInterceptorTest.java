@@ -0,0 +1,170 @@
+package com.project_final.user_service.limit;
+
+import com.project_final.user_service.config.ErrorMetrics;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.grpc.UserLookupGrpcService;
+import com.project_final.user_service.grpc.v1.BatchGetUsersRequest;
+import com.project_final.user_service.grpc.v1.GetUserOrdersRequest;
+import com.project_final.user_service.grpc.v1.GetUserRequest;
+import com.project_final.user_service.grpc.v1.ListUsersRequest;
+import com.project_final.user_service.grpc.v1.UserLookupServiceGrpc;
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.service.UserService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Concurrency Limit Server Interceptor Tests")
+class ConcurrencyLimitServerInterceptorTest {
+
+    @Mock
+    private UserService userService;
+
+    private AdaptiveConcurrencyLimit databaseLimit;
+    private AdaptiveConcurrencyLimit orderServiceLimit;
+    private AdaptiveConcurrencyLimit bulkLimit;
+    private Server server;
+    private ManagedChannel channel;
+    private UserLookupServiceGrpc.UserLookupServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        databaseLimit = new AdaptiveConcurrencyLimit("database", 1, 1, 10, Duration.ofSeconds(1), 0.5);
+        orderServiceLimit = new AdaptiveConcurrencyLimit("order-service", 1, 1, 10, Duration.ofSeconds(1), 0.5);
+        bulkLimit = new AdaptiveConcurrencyLimit("bulk", 1, 1, 10, Duration.ofSeconds(5), 0.5);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(
+                        new UserLookupGrpcService(userService, new ErrorMetrics(new SimpleMeterRegistry())),
+                        new ConcurrencyLimitServerInterceptor(databaseLimit, orderServiceLimit, bulkLimit, Duration.ofSeconds(2))))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = UserLookupServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should reject with UNAVAILABLE and retry-after when the limit is taken")
+    void shouldRejectWithRetryAfter() {
+        // Given
+        assertTrue(databaseLimit.tryAcquire());
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUser(GetUserRequest.newBuilder().setId(1L).build()));
+
+        // Then
+        assertEquals(Status.Code.UNAVAILABLE, error.getStatus().getCode());
+        assertEquals("2", error.getTrailers().get(ConcurrencyLimitServerInterceptor.RETRY_AFTER));
+        assertEquals(1, databaseLimit.getRejected());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should keep GetUserOrders and database calls on separate limits")
+    void shouldSeparateLimitGroups() {
+        // Given: Order Service saturado
+        assertTrue(orderServiceLimit.tryAcquire());
+        User user = new User("Juan Pérez", "juan@example.com");
+        user.setId(1L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUserOrders(GetUserOrdersRequest.newBuilder().setUserId(1L).build()));
+        String name = stub.getUser(GetUserRequest.newBuilder().setId(1L).build()).getName();
+
+        // Then
+        assertEquals(Status.Code.UNAVAILABLE, error.getStatus().getCode());
+        assertEquals("Juan Pérez", name);
+        assertEquals(1, orderServiceLimit.getRejected());
+        assertEquals(0, databaseLimit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should put BatchGetUsers on the bulk limit, apart from point reads")
+    void shouldLimitBatchGetUsersAsBulk() {
+        // Given: operaciones masivas saturadas
+        assertTrue(bulkLimit.tryAcquire());
+        User user = new User("Juan Pérez", "juan@example.com");
+        user.setId(1L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.batchGetUsers(BatchGetUsersRequest.newBuilder().addIds(1L).build()));
+        String name = stub.getUser(GetUserRequest.newBuilder().setId(1L).build()).getName();
+
+        // Then
+        assertEquals(Status.Code.UNAVAILABLE, error.getStatus().getCode());
+        assertEquals("Juan Pérez", name);
+        assertEquals(1, bulkLimit.getRejected());
+        assertEquals(0, databaseLimit.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should release the permit when the call fails")
+    void shouldReleasePermitOnError() {
+        // Given
+        when(userService.getUserById(2L)).thenReturn(Optional.empty());
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUser(GetUserRequest.newBuilder().setId(2L).build()));
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, error.getStatus().getCode());
+        assertEquals(0, databaseLimit.getInFlight());
+        assertEquals(0, databaseLimit.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should leave the ListUsers stream outside the limits")
+    void shouldNotLimitListUsers() {
+        // Given
+        assertTrue(databaseLimit.tryAcquire());
+        LocalDateTime now = LocalDateTime.now();
+        when(userService.getUsersPage(isNull(), any())).thenReturn(new UserPageDTO(
+                List.of(new UserDTO(1L, "Usuario 1", "usuario1@example.com", now, now)), null, 1));
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        stub.listUsers(ListUsersRequest.newBuilder().build()).forEachRemaining(user -> ids.add(user.getId()));
+
+        // Then
+        assertEquals(List.of(1L), ids);
+        assertEquals(0, databaseLimit.getRejected());
+    }
+}
@@ -0,0 +1,61 @@
+package com.project_final.user_service.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.user_service.model.UserChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Change Event Sink Tests")
+class UserChangeEventSinkTest {
+
+    @Test
+    @DisplayName("Should append each batch to the file as NDJSON")
+    void shouldAppendNdjson(@TempDir Path dir) throws IOException {
+        // Given
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        FileUserChangeEventSink sink = new FileUserChangeEventSink(dir.resolve("changes.ndjson"), objectMapper);
+
+        // When
+        sink.publish(List.of(event(1L, UserChangeEvent.Type.CREATED)));
+        sink.publish(List.of(event(1L, UserChangeEvent.Type.UPDATED), event(2L, UserChangeEvent.Type.DELETED)));
+
+        // Then
+        List<String> lines = Files.readAllLines(sink.getPath());
+        assertEquals(3, lines.size());
+        JsonNode last = objectMapper.readTree(lines.get(2));
+        assertEquals(2L, last.get("userId").asLong());
+        assertEquals("DELETED", last.get("type").asText());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent events in memory")
+    void shouldDropOldestInMemory() {
+        // Given
+        InMemoryUserChangeEventSink sink = new InMemoryUserChangeEventSink(2);
+        UserChangeEvent second = event(2L, UserChangeEvent.Type.CREATED);
+        UserChangeEvent third = event(3L, UserChangeEvent.Type.CREATED);
+
+        // When
+        sink.publish(List.of(event(1L, UserChangeEvent.Type.CREATED), second));
+        sink.publish(List.of(third));
+
+        // Then
+        assertEquals(List.of(second, third), sink.drain());
+        assertEquals(0, sink.size());
+    }
+
+    private UserChangeEvent event(Long userId, UserChangeEvent.Type type) {
+        return new UserChangeEvent(userId, type, "Juan", "juan@example.com", 0L, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,172 @@
+package com.project_final.user_service.outbox;
+
+import com.project_final.user_service.model.UserChangeEvent;
+import com.project_final.user_service.repositories.UserChangeEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Outbox Relay Tests")
+class UserOutboxRelayTest {
+
+    @Mock
+    private UserChangeEventRepository repository;
+
+    @Mock
+    private UserChangeEventSink failingSink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryUserChangeEventSink sink;
+    private SimpleMeterRegistry registry;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        sink = new InMemoryUserChangeEventSink(100);
+        registry = new SimpleMeterRegistry();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should publish full batches in order and delete only the published ids")
+    void shouldPublishBatchesInOrder() {
+        // Given
+        UserChangeEvent first = event(1L, 10L, UserChangeEvent.Type.CREATED);
+        UserChangeEvent second = event(2L, 10L, UserChangeEvent.Type.UPDATED);
+        UserChangeEvent third = event(3L, 20L, UserChangeEvent.Type.DELETED);
+        when(repository.lockOldest(any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        UserOutboxRelay relay = new UserOutboxRelay(repository, sink, transactionTemplate, registry, 2, 10);
+
+        // When
+        int published = relay.relayPending();
+
+        // Then
+        assertEquals(3, published);
+        assertEquals(List.of(first, second, third), sink.drain());
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+        // El segundo lote no estaba lleno: no hace falta otra consulta
+        verify(repository, times(2)).lockOldest(any(Pageable.class));
+        assertEquals(3, registry.get("users.outbox.published").counter().count());
+        assertEquals(3, registry.get("users.outbox.lag").timer().count());
+        assertEquals(0, registry.get("users.outbox.oldest-pending").timeGauge().value());
+    }
+
+    @Test
+    @DisplayName("Should keep the batch in the outbox when the sink fails")
+    void shouldKeepBatchWhenSinkFails() throws IOException {
+        // Given
+        UserChangeEvent pending = event(1L, 10L, UserChangeEvent.Type.CREATED);
+        ReflectionTestUtils.setField(pending, "occurredAt", LocalDateTime.now().minusSeconds(30));
+        when(repository.lockOldest(any(Pageable.class))).thenReturn(List.of(pending));
+        doThrow(new IOException("sin espacio")).when(failingSink).publish(anyList());
+        UserOutboxRelay relay = new UserOutboxRelay(repository, failingSink, transactionTemplate, registry, 10, 10);
+
+        // When
+        int published = relay.relayPending();
+
+        // Then
+        assertEquals(0, published);
+        verify(repository, never()).deleteAllByIdInBatch(anyIterable());
+        assertEquals(1, registry.get("users.outbox.publish-failures").counter().count());
+        assertTrue(registry.get("users.outbox.oldest-pending").timeGauge().value(TimeUnit.SECONDS) >= 30);
+    }
+
+    @Test
+    @DisplayName("Should stop after the maximum number of batches per run")
+    void shouldStopAfterMaxBatches() {
+        // Given
+        when(repository.lockOldest(any(Pageable.class)))
+                .thenReturn(List.of(event(1L, 10L, UserChangeEvent.Type.CREATED)))
+                .thenReturn(List.of(event(2L, 11L, UserChangeEvent.Type.CREATED)));
+        UserOutboxRelay relay = new UserOutboxRelay(repository, sink, transactionTemplate, registry, 1, 2);
+
+        // When
+        int published = relay.relayPending();
+
+        // Then
+        assertEquals(2, published);
+        verify(repository, times(2)).lockOldest(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should not touch the sink when the outbox is empty")
+    void shouldDoNothingWhenEmpty() throws IOException {
+        // Given
+        when(repository.lockOldest(any(Pageable.class))).thenReturn(List.of());
+        UserOutboxRelay relay = new UserOutboxRelay(repository, failingSink, transactionTemplate, registry, 10, 10);
+
+        // When
+        int published = relay.relayPending();
+
+        // Then
+        assertEquals(0, published);
+        verifyNoInteractions(failingSink);
+    }
+
+    @Test
+    @DisplayName("Should publish each batch inside its own transaction")
+    void shouldPublishEachBatchInATransaction() {
+        // Given
+        when(repository.lockOldest(any(Pageable.class))).thenReturn(List.of(event(1L, 10L, UserChangeEvent.Type.CREATED)));
+        UserOutboxRelay relay = new UserOutboxRelay(repository, sink, transactionTemplate, registry, 10, 10);
+
+        // When
+        relay.relayPending();
+
+        // Then: bloqueo, publicación y borrado dentro de la misma transacción
+        InOrder inOrder = inOrder(transactionManager, repository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(repository).lockOldest(any(Pageable.class));
+        inOrder.verify(repository).deleteAllByIdInBatch(List.of(1L));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should skip the run while another instance holds the outbox head")
+    void shouldSkipWhenAnotherInstanceIsRelaying() {
+        // Given
+        when(repository.lockOldest(any(Pageable.class)))
+                .thenThrow(new PessimisticLockingFailureException("could not obtain lock"));
+        UserOutboxRelay relay = new UserOutboxRelay(repository, sink, transactionTemplate, registry, 10, 10);
+
+        // When
+        int published = relay.relayPending();
+
+        // Then
+        assertEquals(0, published);
+        assertTrue(sink.drain().isEmpty());
+        verify(repository, never()).deleteAllByIdInBatch(anyIterable());
+        verify(transactionManager).rollback(any());
+    }
+
+    private UserChangeEvent event(Long id, Long userId, UserChangeEvent.Type type) {
+        UserChangeEvent event = new UserChangeEvent(userId, type, "Juan", "juan@example.com", 0L, LocalDateTime.now());
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
@@ -0,0 +1,93 @@
+package com.project_final.user_service.repositories;
+
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.model.UserChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "user.batch.jdbc-batch-size=3"
+})
+@Import(UserBatchRepository.class)
+@DisplayName("User Batch Repository Tests")
+class UserBatchRepositoryTest {
+
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeEventRepository userChangeEventRepository;
+
+    @Test
+    @DisplayName("Should insert across several JDBC batches and return generated ids in order")
+    void shouldInsertAcrossBatchesAndReturnIds() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            users.add(new User("Usuario " + i, "user" + i + "@example.com"));
+        }
+
+        // When
+        List<Long> ids = userBatchRepository.insertAll(users, LocalDateTime.now());
+
+        // Then
+        assertEquals(7, ids.size());
+        assertEquals(7, userRepository.count());
+        assertEquals("user0@example.com", userRepository.findById(ids.get(0)).orElseThrow().getEmail());
+        assertEquals("user6@example.com", userRepository.findById(ids.get(6)).orElseThrow().getEmail());
+    }
+
+    @Test
+    @DisplayName("Should update users by email")
+    void shouldUpdateUsersByEmail() {
+        // Given
+        User saved = userRepository.saveAndFlush(new User("Juan Pérez", "juan@example.com"));
+        LocalDateTime now = LocalDateTime.now().plusMinutes(1);
+
+        // When
+        userBatchRepository.updateAllByEmail(List.of(new User("Juan Actualizado", "juan@example.com")), now);
+
+        // Then
+        List<UserIdEmail> rows = userRepository.findIdAndEmailByEmailIn(List.of("juan@example.com"));
+        assertEquals(1, rows.size());
+        assertEquals(saved.getId(), rows.get(0).getId());
+        assertEquals(1, userRepository.findByName("Juan Actualizado").size());
+    }
+
+    @Test
+    @DisplayName("Should insert outbox events in JDBC batches, oldest first")
+    void shouldInsertChangeEvents() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        List<UserChangeEvent> events = new ArrayList<>();
+        for (long i = 1; i <= 4; i++) {
+            events.add(new UserChangeEvent(i, UserChangeEvent.Type.CREATED, "Usuario " + i,
+                    "user" + i + "@example.com", 0L, now));
+        }
+        events.add(new UserChangeEvent(1L, UserChangeEvent.Type.UPDATED, "Usuario 1", "user1@example.com", null, now));
+
+        // When
+        userBatchRepository.insertChangeEvents(events);
+
+        // Then
+        List<UserChangeEvent> stored = userChangeEventRepository.lockOldest(PageRequest.of(0, 10));
+        assertEquals(5, stored.size());
+        assertEquals(1L, stored.get(0).getUserId());
+        assertEquals(UserChangeEvent.Type.UPDATED, stored.get(4).getType());
+        assertNull(stored.get(4).getVersion());
+    }
+}
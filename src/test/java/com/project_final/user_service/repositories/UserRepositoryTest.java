@@ -0,0 +1,156 @@
+package com.project_final.user_service.repositories;
+
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.model.User;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@DisplayName("User Repository Tests")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            userRepository.save(new User("Usuario " + i, "user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should page by id without offset")
+    void shouldPageByIdWithoutOffset() {
+        // Given
+        List<UserDTO> firstPage = userRepository.findViewsAfterId(0L, PageRequest.of(0, 2));
+
+        // When
+        Long lastId = firstPage.get(firstPage.size() - 1).id();
+        List<UserDTO> secondPage = userRepository.findViewsAfterId(lastId, PageRequest.of(0, 2));
+
+        // Then
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertTrue(secondPage.get(0).id() > lastId);
+        assertEquals("Usuario 3", secondPage.get(0).name());
+    }
+
+    @Test
+    @DisplayName("Should read projections without loading entities into the persistence context")
+    void shouldReadProjectionsWithoutManagedEntities() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+
+        // When
+        List<UserDTO> page = userRepository.findViewsAfterId(0L, PageRequest.of(0, 3));
+        List<UserDTO> found = userRepository.findViewsByNameContaining("ario 4", PageRequest.of(0, 10));
+        List<UserDTO> all = userRepository.findAllViews();
+
+        // Then
+        assertEquals(List.of("Usuario 1", "Usuario 2", "Usuario 3"), page.stream().map(UserDTO::name).toList());
+        assertEquals(List.of("user4@example.com"), found.stream().map(UserDTO::email).toList());
+        assertEquals(5, all.size());
+        assertEquals(0, session.getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("Should set creation timestamps on insert regardless of the values received")
+    void shouldSetTimestampsOnInsert() {
+        // Given
+        User user = new User("Usuario 6", "user6@example.com");
+        user.setCreatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+        user.setUpdatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        User saved = userRepository.save(user);
+        entityManager.flush();
+
+        // Then
+        assertFalse(saved.getCreatedAt().isBefore(before));
+        assertEquals(saved.getCreatedAt(), saved.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Should update only when the expected version still matches")
+    void shouldUpdateOnlyWithMatchingVersion() {
+        // Given
+        User user = userRepository.findByEmail("user1@example.com").orElseThrow();
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        // When
+        int stale = userRepository.updateNameAndEmail(user.getId(), "Otro", "otro@example.com", now, 5L);
+        int matching = userRepository.updateNameAndEmail(user.getId(), "Otro", "otro@example.com", now, 0L);
+        int unconditional = userRepository.updateNameAndEmail(user.getId(), "Otro más", "otro@example.com", now, null);
+
+        // Then
+        assertEquals(0, stale);
+        assertEquals(1, matching);
+        assertEquals(1, unconditional);
+        User updated = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("Otro más", updated.getName());
+        assertEquals(2L, updated.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should report affected rows when deleting by id")
+    void shouldReportAffectedRowsOnDelete() {
+        // Given
+        Long id = userRepository.findByEmail("user2@example.com").orElseThrow().getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        int deleted = userRepository.deleteUserById(id);
+        int deletedAgain = userRepository.deleteUserById(id);
+
+        // Then
+        assertEquals(1, deleted);
+        assertEquals(0, deletedAgain);
+        assertFalse(userRepository.existsById(id));
+    }
+
+    @Test
+    @DisplayName("Should list changes after an (updatedAt, id) position up to the settle limit")
+    void shouldListChangesAfterPosition() {
+        // Given: dos usuarios con la misma fecha y uno demasiado reciente
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 10, 0);
+        entityManager.getEntityManager().createQuery("UPDATE User u SET u.updatedAt = :at")
+                .setParameter("at", base).executeUpdate();
+        List<UserDTO> users = userRepository.findViewsAfterId(0L, PageRequest.of(0, 5));
+        setUpdatedAt(users.get(0).id(), base.plusMinutes(2));
+        setUpdatedAt(users.get(1).id(), base.plusMinutes(1));
+        setUpdatedAt(users.get(2).id(), base.plusMinutes(1));
+        setUpdatedAt(users.get(3).id(), base.plusHours(1));
+
+        // When: desde la posición del primero con fecha base+1min
+        List<UserDTO> changes = userRepository.findViewsChangedAfter(base.plusMinutes(1), users.get(1).id(),
+                base.plusMinutes(30), PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(users.get(2).id(), users.get(0).id()), changes.stream().map(UserDTO::id).toList());
+    }
+
+    private void setUpdatedAt(Long id, LocalDateTime at) {
+        entityManager.getEntityManager().createQuery("UPDATE User u SET u.updatedAt = :at WHERE u.id = :id")
+                .setParameter("at", at).setParameter("id", id).executeUpdate();
+    }
+}
@@ -0,0 +1,96 @@
+package com.project_final.user_service.search;
+
+import com.project_final.user_service.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Search Index Unit Tests")
+class UserSearchIndexTest {
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex();
+        index.index(1L, "Juan Pérez", "juan@example.com");
+        index.index(2L, "Juan Carlos", "juancarlos@example.com");
+        index.index(3L, "Ana García", "ana@example.com");
+        index.index(4L, "Mariana Juanes", "mariana@test.com");
+    }
+
+    @Test
+    @DisplayName("Should rank exact, prefix, word and substring matches in that order")
+    void shouldRankMatches() {
+        // When
+        List<Long> result = index.search("juan", 10, false);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 4L), result);
+        assertEquals(List.of(3L, 4L), index.search("ana", 10, false));
+    }
+
+    @Test
+    @DisplayName("Should ignore case and accents like MySQL does")
+    void shouldIgnoreCaseAndAccents() {
+        // When & Then
+        assertEquals(List.of(1L), index.search("PEREZ", 10, false));
+        assertEquals(List.of(3L), index.search("garcía", 10, false));
+    }
+
+    @Test
+    @DisplayName("Should bound the number of results")
+    void shouldLimitResults() {
+        // When & Then
+        assertEquals(List.of(1L, 2L), index.search("juan", 2, false));
+        assertTrue(index.search("juan", 0, false).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should match emails only when requested")
+    void shouldMatchEmailsOnlyWhenRequested() {
+        // When & Then
+        assertTrue(index.search("test.com", 10, false).isEmpty());
+        assertEquals(List.of(4L), index.search("test.com", 10, true));
+    }
+
+    @Test
+    @DisplayName("Should support queries shorter than a trigram")
+    void shouldSupportShortQueries() {
+        // When & Then
+        assertEquals(List.of(2L), index.search("ca", 10, false));
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and deletions")
+    void shouldReflectUpdatesAndDeletions() {
+        // When
+        index.index(1L, "Pedro Sánchez", "juan@example.com");
+        index.remove(2L);
+
+        // Then
+        assertEquals(List.of(4L), index.search("juan", 10, false));
+        assertEquals(List.of(1L), index.search("sanchez", 10, false));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Should not overwrite newer entries while loading from the database")
+    void shouldNotOverwriteNewerEntriesOnLoad() {
+        // Given
+        User stale = new User("Juan Pérez", "juan@example.com");
+        stale.setId(1L);
+        index.index(1L, "Juan Renombrado", "juan@example.com");
+
+        // When
+        index.load(stale);
+
+        // Then
+        assertTrue(index.search("perez", 10, false).isEmpty());
+        assertEquals(List.of(1L), index.search("renombrado", 10, false));
+    }
+}
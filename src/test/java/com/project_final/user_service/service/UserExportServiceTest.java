@@ -0,0 +1,87 @@
+package com.project_final.user_service.service;
+
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "user.export.flush-every=2"
+})
+@AutoConfigureJson
+@Import(UserExportService.class)
+@DisplayName("User Export Service Tests")
+class UserExportServiceTest {
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        User oldUser = userRepository.save(new User("Juan Pérez", "juan@example.com"));
+        userRepository.save(new User("Ana García", "ana@example.com"));
+        userRepository.save(new User("Luis Gómez", "luis@example.com"));
+        entityManager.flush();
+        // La fecha la fija el servidor al insertar: se envejece después con un UPDATE
+        entityManager.createQuery("UPDATE User u SET u.updatedAt = :at WHERE u.id = :id")
+                .setParameter("at", LocalDateTime.of(2020, 1, 1, 0, 0))
+                .setParameter("id", oldUser.getId())
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per line and detach entities")
+    void shouldWriteOneJsonDocumentPerLine() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long exported = userExportService.exportNdjson(null, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"name\":\"Juan Pérez\""));
+        assertTrue(lines[2].contains("\"email\":\"luis@example.com\""));
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("Should export only users updated since the given instant")
+    void shouldExportOnlyUsersUpdatedSince() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long exported = userExportService.exportNdjson(LocalDateTime.of(2021, 1, 1, 0, 0), out);
+
+        // Then
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertEquals(2, exported);
+        assertFalse(body.contains("juan@example.com"));
+        assertTrue(body.contains("ana@example.com"));
+    }
+}
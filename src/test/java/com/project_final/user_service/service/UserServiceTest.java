@@ -1,23 +1,69 @@
 package com.project_final.user_service.service;
 
+import com.project_final.user_service.cache.EmailBloomFilter;
+import com.project_final.user_service.cache.OrderListCache;
+import com.project_final.user_service.cache.UserCache;
+import com.project_final.user_service.cache.UserCounter;
+import com.project_final.user_service.client.OrderServiceClient;
+import com.project_final.user_service.dto.BatchItemResultDTO;
+import com.project_final.user_service.dto.BatchResultDTO;
 import com.project_final.user_service.dto.OrderDTO;
+import com.project_final.user_service.dto.UserChangeDTO;
+import com.project_final.user_service.dto.UserChangesPageDTO;
+import com.project_final.user_service.dto.UserCountDTO;
+import com.project_final.user_service.dto.UserDTO;
+import com.project_final.user_service.dto.UserLookupRequestDTO;
+import com.project_final.user_service.dto.UserLookupResultDTO;
+import com.project_final.user_service.dto.UserPageDTO;
+import com.project_final.user_service.dto.UserVersionDTO;
+import com.project_final.user_service.exceptions.UserAlreadyExistsException;
+import com.project_final.user_service.exceptions.UserPreconditionFailedException;
+import com.project_final.user_service.exceptions.UserValidationException;
 import com.project_final.user_service.model.User;
+import com.project_final.user_service.model.UserChangeEvent;
+import com.project_final.user_service.model.UserTombstone;
+import com.project_final.user_service.repositories.UserBatchRepository;
+import com.project_final.user_service.repositories.UserChangeEventRepository;
+import com.project_final.user_service.repositories.UserIdEmail;
 import com.project_final.user_service.repositories.UserRepository;
+import com.project_final.user_service.repositories.UserStatsRepository;
+import com.project_final.user_service.repositories.UserTombstoneRepository;
+import com.project_final.user_service.search.UserSearchIndex;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,9 +76,40 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private UserChangeEventRepository userChangeEventRepository;
+
+    @Mock
+    private UserTombstoneRepository userTombstoneRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(5));
+
+    @Spy
+    private OrderListCache orderListCache = new OrderListCache(100, Duration.ofSeconds(5),
+            Duration.ofMinutes(1), Duration.ofMinutes(10), Runnable::run);
+
+    @Spy
+    private UserSearchIndex userSearchIndex = new UserSearchIndex();
+
+    @Spy
+    private EmailBloomFilter emailFilter = new EmailBloomFilter(1000, 0.01);
+
+    @Spy
+    private UserCounter userCounter = new UserCounter();
+
     @InjectMocks
     private UserService userService;
 
@@ -47,13 +124,33 @@ class UserServiceTest {
         OrderDTO order1 = new OrderDTO(1L, 1L, 2, new BigDecimal("100.00"), LocalDateTime.now());
         OrderDTO order2 = new OrderDTO(2L, 2L, 1, new BigDecimal("50.00"), LocalDateTime.now());
         testOrders = new OrderDTO[]{order1, order2};
+
+        // El cliente real de Order Service envuelve el RestTemplate simulado
+        OrderServiceClient orderServiceClient = new OrderServiceClient(restTemplate,
+                CircuitBreaker.ofDefaults("orderService"), Bulkhead.ofDefaults("orderService"),
+                new PoolingHttpClientConnectionManager(), "http://order-service/api/orders",
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userService, "orderServiceClient", orderServiceClient);
+        ReflectionTestUtils.setField(userService, "transactionTemplate", new TransactionTemplate(transactionManager));
+
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 3);
+        ReflectionTestUtils.setField(userService, "maxBatchItems", 10);
+        ReflectionTestUtils.setField(userService, "maxLookupKeys", 10);
+        ReflectionTestUtils.setField(userService, "lookupChunkSize", 2);
+        ReflectionTestUtils.setField(userService, "defaultSearchLimit", 20);
+        ReflectionTestUtils.setField(userService, "maxSearchLimit", 100);
+        ReflectionTestUtils.setField(userService, "searchRebuildPageSize", 2);
+        ReflectionTestUtils.setField(userService, "maxUpdateAttempts", 3);
+        ReflectionTestUtils.setField(userService, "changesSettleWindow", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(userService, "tombstoneRetention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(userService, "outboxEnabled", true);
     }
 
     @Test
     @DisplayName("Should create user successfully")
     void shouldCreateUserSuccessfully() {
         // Given
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(false);
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         // When
@@ -63,15 +160,61 @@ class UserServiceTest {
         assertNotNull(createdUser);
         assertEquals(testUser.getName(), createdUser.getName());
         assertEquals(testUser.getEmail(), createdUser.getEmail());
-        verify(userRepository).existsByEmail(testUser.getEmail());
-        verify(userRepository).save(testUser);
+        verify(userRepository).save(any(User.class));
+        verifyNoMoreInteractions(userRepository);
+        ArgumentCaptor<UserChangeEvent> event = ArgumentCaptor.forClass(UserChangeEvent.class);
+        verify(userChangeEventRepository).save(event.capture());
+        assertEquals(UserChangeEvent.Type.CREATED, event.getValue().getType());
+        assertEquals(1L, event.getValue().getUserId());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should ignore client-supplied id, version and timestamps on create")
+    void shouldIgnoreServerAssignedFieldsOnCreate() {
+        // Given
+        User request = new User("Juan Pérez", "juan@example.com");
+        request.setId(42L);
+        request.setVersion(7L);
+        request.setCreatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+        request.setUpdatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // When
+        userService.createUser(request);
+
+        // Then
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertNull(saved.getValue().getId());
+        assertNull(saved.getValue().getVersion());
+        assertEquals("Juan Pérez", saved.getValue().getName());
+        assertEquals("juan@example.com", saved.getValue().getEmail());
+        assertTrue(saved.getValue().getCreatedAt().isAfter(LocalDateTime.of(2000, 1, 1, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("Should not write outbox events while the relay is disabled")
+    void shouldSkipOutboxWhenRelayDisabled() {
+        // Given
+        ReflectionTestUtils.setField(userService, "outboxEnabled", false);
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
+
+        // When
+        userService.createUser(testUser);
+        userService.deleteUser(1L);
+
+        // Then
+        verifyNoInteractions(userChangeEventRepository);
+        verify(userTombstoneRepository).save(any(UserTombstone.class));
     }
 
     @Test
     @DisplayName("Should throw exception when email already exists")
     void shouldThrowExceptionWhenEmailExists() {
         // Given
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenThrow(duplicateKey());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -79,24 +222,248 @@ class UserServiceTest {
 
         // Corregir el mensaje esperado para que coincida con el real
         assertEquals("Ya existe un usuario con el email: juan@example.com", exception.getMessage());
-        verify(userRepository).existsByEmail(testUser.getEmail());
-        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(userChangeEventRepository);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should add created emails to the filter used by batch loads")
+    void shouldAddCreatedEmailToFilter() {
+        // Given
+        emailFilter.markReady();
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // When
+        userService.createUser(testUser);
+
+        // Then
+        assertTrue(emailFilter.mightContain(testUser.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Should translate unique constraint violations into UserAlreadyExistsException")
+    void shouldTranslateUniqueConstraintViolation() {
+        // Given
+        emailFilter.markReady();
+        when(userRepository.save(any(User.class))).thenThrow(duplicateKey());
+
+        // When & Then
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.createUser(testUser));
+        assertEquals("Ya existe un usuario con el email: juan@example.com", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should create batch with per-item results")
+    void shouldCreateBatchWithPerItemResults() {
+        // Given
+        List<User> batch = Arrays.asList(
+                new User("Nuevo", "nuevo@example.com"),
+                new User("", "vacio@example.com"),
+                new User("Repetido", "NUEVO@example.com"),
+                new User("Existente", "juan@example.com"));
+        when(userRepository.findIdAndEmailByEmailIn(List.of("nuevo@example.com", "juan@example.com")))
+                .thenReturn(List.of(idEmail(1L, "juan@example.com")));
+        when(userBatchRepository.insertAll(anyList(), any(LocalDateTime.class))).thenReturn(List.of(7L));
+
+        // When
+        BatchResultDTO result = userService.createUsersBatch(batch, false);
+
+        // Then
+        List<BatchItemResultDTO> items = result.getResults();
+        assertEquals(BatchItemResultDTO.Status.CREATED, items.get(0).getStatus());
+        assertEquals(7L, items.get(0).getUserId());
+        assertEquals(BatchItemResultDTO.Status.INVALID, items.get(1).getStatus());
+        assertEquals(BatchItemResultDTO.Status.DUPLICATE_IN_REQUEST, items.get(2).getStatus());
+        assertEquals(BatchItemResultDTO.Status.ALREADY_EXISTS, items.get(3).getStatus());
+        assertEquals(1, result.getCreated());
+        assertEquals(3, result.getRejected());
+        verify(userRepository, times(1)).findIdAndEmailByEmailIn(anyCollection());
+        verify(userBatchRepository, never()).updateAllByEmail(anyList(), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserChangeEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository).insertChangeEvents(events.capture());
+        assertEquals(1, events.getValue().size());
+        assertEquals(7L, events.getValue().get(0).getUserId());
+        assertEquals(UserChangeEvent.Type.CREATED, events.getValue().get(0).getType());
+    }
+
+    @Test
+    @DisplayName("Should count emails the filter lets through but the database does not have as false positives")
+    void shouldRecordFilterFalsePositivesInBatch() {
+        // Given: "colision" está en el filtro (p. ej. un email borrado) pero no en la base de datos
+        emailFilter.put("juan@example.com");
+        emailFilter.put("colision@example.com");
+        emailFilter.markReady();
+        List<User> batch = List.of(
+                new User("Existente", "juan@example.com"),
+                new User("Colisión", "colision@example.com"),
+                new User("Nuevo", "nuevo@example.com"));
+        when(userRepository.findIdAndEmailByEmailIn(List.of("juan@example.com", "colision@example.com")))
+                .thenReturn(List.of(idEmail(1L, "juan@example.com")));
+        when(userBatchRepository.insertAll(anyList(), any(LocalDateTime.class))).thenReturn(List.of(8L, 9L));
+
+        // When
+        userService.createUsersBatch(batch, false);
+
+        // Then
+        assertEquals(1L, emailFilter.getStats().get("falsePositives"));
+        assertEquals(1L, emailFilter.getStats().get("definitelyAbsent"));
+    }
+
+    @Test
+    @DisplayName("Should check every email against the database when upserting, whatever the filter says")
+    void shouldNotSkipExistenceCheckWhenUpserting() {
+        // Given: el email se dio de alta en otra instancia, así que este filtro no lo conoce
+        emailFilter.markReady();
+        User other = new User("Creado en otra instancia", "otra@example.com");
+        when(userRepository.findIdAndEmailByEmailIn(List.of("otra@example.com")))
+                .thenReturn(List.of(idEmail(5L, "otra@example.com")));
+
+        // When
+        BatchResultDTO result = userService.createUsersBatch(List.of(other), true);
+
+        // Then
+        assertEquals(BatchItemResultDTO.Status.UPDATED, result.getResults().get(0).getStatus());
+        assertEquals(5L, result.getResults().get(0).getUserId());
+        verify(userBatchRepository, never()).insertAll(anyList(), any());
+        assertEquals(0L, emailFilter.getStats().get("falsePositives"));
+    }
+
+    @Test
+    @DisplayName("Should teach the filter the conflicting emails so a retried batch sees them")
+    void shouldLearnConflictingEmailsOnDuplicateInsert() {
+        // Given
+        emailFilter.markReady();
+        User other = new User("Creado en otra instancia", "otra@example.com");
+        when(userBatchRepository.insertAll(anyList(), any(LocalDateTime.class)))
+                .thenThrow(duplicateKey());
+        when(userRepository.findIdAndEmailByEmailIn(List.of("otra@example.com")))
+                .thenReturn(List.of(idEmail(5L, "otra@example.com")));
+
+        // When
+        assertThrows(UserAlreadyExistsException.class, () -> userService.createUsersBatch(List.of(other), false));
+
+        // Then
+        assertTrue(emailFilter.mightContain("otra@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should update existing emails when upserting a batch")
+    void shouldUpdateExistingEmailsWhenUpserting() {
+        // Given
+        User existing = new User("Juan Actualizado", "juan@example.com");
+        when(userRepository.findIdAndEmailByEmailIn(List.of("juan@example.com")))
+                .thenReturn(List.of(idEmail(1L, "juan@example.com")));
+        userCache.put(testUser);
+
+        // When
+        BatchResultDTO result = userService.createUsersBatch(List.of(existing), true);
+
+        // Then
+        assertEquals(BatchItemResultDTO.Status.UPDATED, result.getResults().get(0).getStatus());
+        assertEquals(1L, result.getResults().get(0).getUserId());
+        verify(userBatchRepository).updateAllByEmail(eq(List.of(existing)), any(LocalDateTime.class));
+        verify(userBatchRepository, never()).insertAll(anyList(), any());
+        verify(userCache).evictById(1L);
+        assertEquals(0L, userCache.getByEmailCache().estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should reject batches above the configured maximum")
+    void shouldRejectOversizedBatch() {
+        // Given
+        List<User> batch = Collections.nCopies(11, testUser);
+
+        // When & Then
+        assertThrows(UserValidationException.class, () -> userService.createUsersBatch(batch, false));
+        verifyNoInteractions(userBatchRepository);
     }
 
     @Test
     @DisplayName("Should get all users")
     void shouldGetAllUsers() {
         // Given
-        List<User> users = Arrays.asList(testUser, new User("Ana García", "ana@example.com"));
-        when(userRepository.findAll()).thenReturn(users);
+        ReflectionTestUtils.setField(userService, "unpagedListingEnabled", true);
+        List<UserDTO> users = Arrays.asList(UserDTO.from(testUser), viewWithId(2L));
+        when(userRepository.findAllViews()).thenReturn(users);
 
         // When
-        List<User> result = userService.getAllUsers();
+        List<UserDTO> result = userService.getAllUsers();
 
         // Then
         assertEquals(2, result.size());
         assertEquals(users, result);
-        verify(userRepository).findAll();
+        verify(userRepository).findAllViews();
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should reject unpaged listing unless enabled")
+    void shouldRejectUnpagedListingUnlessEnabled() {
+        // When & Then
+        assertThrows(UserValidationException.class, () -> userService.getAllUsers());
+        verify(userRepository, never()).findAllViews();
+    }
+
+    @Test
+    @DisplayName("Should return first page with next cursor")
+    void shouldReturnFirstPageWithNextCursor() {
+        // Given
+        List<UserDTO> rows = Arrays.asList(viewWithId(1L), viewWithId(2L), viewWithId(3L));
+        when(userRepository.findViewsAfterId(0L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        // When
+        UserPageDTO page = userService.getUsersPage(null, null);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertEquals(2, page.getLimit());
+        assertNotNull(page.getNextCursor());
+        assertTrue(page.isHasMore());
+    }
+
+    @Test
+    @DisplayName("Should resume listing after the cursor id")
+    void shouldResumeListingAfterCursor() {
+        // Given
+        List<UserDTO> firstRows = Arrays.asList(viewWithId(1L), viewWithId(2L), viewWithId(3L));
+        when(userRepository.findViewsAfterId(0L, PageRequest.of(0, 3))).thenReturn(firstRows);
+        when(userRepository.findViewsAfterId(2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(viewWithId(3L)));
+        String cursor = userService.getUsersPage(null, null).getNextCursor();
+
+        // When
+        UserPageDTO page = userService.getUsersPage(cursor, null);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertEquals(3L, page.getItems().get(0).id());
+        assertNull(page.getNextCursor());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    @DisplayName("Should cap page size at the configured maximum")
+    void shouldCapPageSizeAtMaximum() {
+        // Given
+        when(userRepository.findViewsAfterId(0L, PageRequest.of(0, 4))).thenReturn(List.of());
+
+        // When
+        UserPageDTO page = userService.getUsersPage(null, 1000);
+
+        // Then
+        assertEquals(3, page.getLimit());
+        verify(userRepository).findViewsAfterId(0L, PageRequest.of(0, 4));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursor")
+    void shouldRejectMalformedCursor() {
+        // When & Then
+        assertThrows(UserValidationException.class, () -> userService.getUsersPage("not-a-cursor", null));
+        assertThrows(UserValidationException.class, () -> userService.getUsersPage(null, 0));
+        verify(userRepository, never()).findViewsAfterId(anyLong(), any());
     }
 
     @Test
@@ -128,6 +495,22 @@ class UserServiceTest {
         verify(userRepository).findById(999L);
     }
 
+    @Test
+    @DisplayName("Should read the version from the cache or a two-column query")
+    void shouldGetUserLastModified() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        when(userRepository.findVersionById(2L)).thenReturn(Optional.of(new UserVersionDTO(3L, updatedAt)));
+        userCache.put(testUser);
+
+        // When & Then
+        assertEquals(Optional.of(new UserVersionDTO(testUser.getVersion(), testUser.getUpdatedAt())),
+                userService.getUserVersion(1L));
+        assertEquals(Optional.of(new UserVersionDTO(3L, updatedAt)), userService.getUserVersion(2L));
+        verify(userRepository, never()).findVersionById(1L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
     @Test
     @DisplayName("Should get user by email")
     void shouldGetUserByEmail() {
@@ -143,13 +526,127 @@ class UserServiceTest {
         verify(userRepository).findByEmail(testUser.getEmail());
     }
 
+    @Test
+    @DisplayName("Should serve repeated lookups by ID and email from cache")
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        userService.getUserById(1L);
+        Optional<User> byId = userService.getUserById(1L);
+        Optional<User> byEmail = userService.getUserByEmail(testUser.getEmail());
+
+        // Then
+        assertTrue(byId.isPresent());
+        assertTrue(byEmail.isPresent());
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("Should not cache missing users")
+    void shouldNotCacheMissingUsers() {
+        // Given
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When
+        userService.getUserById(999L);
+        userService.getUserById(999L);
+
+        // Then
+        verify(userRepository, times(2)).findById(999L);
+    }
+
+    @Test
+    @DisplayName("Should evict old email key when email changes on update")
+    void shouldEvictOldEmailKeyOnUpdate() {
+        // Given
+        User renamed = new User("Juan Carlos Pérez", "juancarlos@example.com");
+        renamed.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser)).thenReturn(Optional.of(renamed));
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan Carlos Pérez"), eq("juancarlos@example.com"),
+                any(LocalDateTime.class), isNull())).thenReturn(1);
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.empty());
+        userService.getUserById(1L);
+
+        // When
+        userService.updateUser(1L, new User("Juan Carlos Pérez", "juancarlos@example.com"));
+
+        // Then
+        assertFalse(userService.getUserByEmail("juan@example.com").isPresent());
+        verify(userRepository).findByEmail("juan@example.com");
+        verify(userCache).evictById(1L);
+        verify(userCache).evict(1L, "juancarlos@example.com");
+    }
+
+    @Test
+    @DisplayName("Should evict user from cache on delete")
+    void shouldEvictUserFromCacheOnDelete() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
+        userService.getUserById(1L);
+
+        // When
+        userService.deleteUser(1L);
+
+        // Then
+        verify(userCache).evictById(1L);
+        assertEquals(0L, userCache.getByIdCache().estimatedSize());
+        assertEquals(0L, userCache.getByEmailCache().estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should resolve many users serving cache hits and chunking misses")
+    void shouldLookupUsersServingCacheHitsAndChunkingMisses() {
+        // Given
+        userCache.put(testUser);
+        when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<User> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (id != 4L) {
+                    found.add(userWithId(id));
+                }
+            }
+            return found;
+        });
+        when(userRepository.findByEmailIn(anyCollection())).thenReturn(List.of(userWithId(9L)));
+
+        // When
+        UserLookupResultDTO result = userService.lookupUsers(new UserLookupRequestDTO(
+                Arrays.asList(1L, 2L, 3L, 4L, 1L), List.of("USER9@example.com", "nadie@example.com")));
+
+        // Then
+        assertEquals(3, result.getById().size());
+        assertSame(testUser, result.getById().get(1L));
+        assertEquals(List.of(4L), result.getMissingIds());
+        assertEquals(9L, result.getByEmail().get("USER9@example.com").getId());
+        assertEquals(List.of("nadie@example.com"), result.getMissingEmails());
+        verify(userRepository, times(2)).findAllById(anyIterable());
+        verify(userRepository, times(1)).findByEmailIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should reject lookups above the configured maximum")
+    void shouldRejectOversizedLookup() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 11).boxed().toList();
+
+        // When & Then
+        assertThrows(UserValidationException.class,
+                () -> userService.lookupUsers(new UserLookupRequestDTO(ids, List.of())));
+        verify(userRepository, never()).findAllById(anyIterable());
+    }
+
     @Test
     @DisplayName("Should update user successfully")
     void shouldUpdateUserSuccessfully() {
         // Given
         User updatedDetails = new User("Juan Carlos Pérez", "juancarlos@example.com");
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan Carlos Pérez"), eq("juancarlos@example.com"),
+                any(LocalDateTime.class), isNull())).thenReturn(1);
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         // When
         User result = userService.updateUser(1L, updatedDetails);
@@ -157,7 +654,118 @@ class UserServiceTest {
         // Then
         assertNotNull(result);
         verify(userRepository).findById(1L);
-        verify(userRepository).save(testUser);
+        verify(userRepository, never()).save(any(User.class));
+        verify(userChangeEventRepository).save(argThat(event -> event.getType() == UserChangeEvent.Type.UPDATED));
+    }
+
+    @Test
+    @DisplayName("Should reject updates whose expected version is stale")
+    void shouldRejectStaleExpectedVersion() {
+        // Given
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Otro"), eq("juan@example.com"),
+                any(LocalDateTime.class), eq(1L))).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(new UserVersionDTO(2L, LocalDateTime.now())));
+
+        // When & Then
+        assertThrows(UserPreconditionFailedException.class,
+                () -> userService.updateUser(1L, new User("Otro", "juan@example.com"), 1L));
+        verify(userRepository, never()).findById(anyLong());
+        verifyNoInteractions(userChangeEventRepository);
+    }
+
+    @Test
+    @DisplayName("Should translate a duplicate email on update into UserAlreadyExistsException")
+    void shouldTranslateDuplicateEmailOnUpdate() {
+        // Given
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan"), eq("maria@example.com"),
+                any(LocalDateTime.class), isNull())).thenThrow(duplicateKey());
+
+        // When & Then
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.updateUser(1L, new User("Juan", "maria@example.com")));
+        assertEquals("Ya existe un usuario con el email: maria@example.com", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should not report other integrity violations on update as a duplicate email")
+    void shouldRethrowOtherIntegrityViolationsOnUpdate() {
+        // Given: la base de datos rechaza la fila por otro motivo (p. ej. un valor demasiado largo)
+        DataIntegrityViolationException tooLong = new DataIntegrityViolationException("too long",
+                new SQLException("Data too long for column 'name'", "22001", 1406));
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan"), eq("maria@example.com"),
+                any(LocalDateTime.class), isNull())).thenThrow(tooLong);
+
+        // When & Then
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> userService.updateUser(1L, new User("Juan", "maria@example.com")));
+        assertSame(tooLong, exception);
+    }
+
+    @Test
+    @DisplayName("Should reject emails longer than the column")
+    void shouldRejectTooLongEmail() {
+        // Given
+        User user = new User("Juan", "a".repeat(250) + "@example.com");
+
+        // When & Then
+        UserValidationException exception = assertThrows(UserValidationException.class,
+                () -> userService.createUser(user));
+        assertTrue(exception.getMessage().contains("El email no puede tener más de 255 caracteres"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should reread and reapply changes when retrying after a conflict")
+    void shouldRetryUpdatesOnConflict() {
+        // Given
+        User first = new User("Juan Pérez", "juan@example.com");
+        first.setId(1L);
+        first.setVersion(0L);
+        User second = new User("Juan Pérez", "juan@example.com");
+        second.setId(1L);
+        second.setVersion(1L);
+        User renamed = new User("Juan Renombrado", "juan@example.com");
+        renamed.setId(1L);
+        renamed.setVersion(2L);
+        when(userRepository.findById(1L))
+                .thenReturn(Optional.of(first))
+                .thenReturn(Optional.of(second))
+                .thenReturn(Optional.of(renamed));
+        // Otra escritura pasa el usuario a la versión 1 entre la primera lectura y el UPDATE
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan Renombrado"), eq("juan@example.com"),
+                any(LocalDateTime.class), eq(0L))).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(new UserVersionDTO(1L, LocalDateTime.now())));
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan Renombrado"), eq("juan@example.com"),
+                any(LocalDateTime.class), eq(1L))).thenReturn(1);
+
+        // When
+        User result = userService.updateUserWithRetry(1L, details -> details.setName("Juan Renombrado"));
+
+        // Then
+        assertEquals("Juan Renombrado", result.getName());
+        verify(userRepository, times(2)).updateNameAndEmail(anyLong(), anyString(), anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should read the current version inside a read-write transaction when retrying")
+    void shouldReadCurrentVersionFromPrimaryWhenRetrying() {
+        // Given
+        User current = new User("Juan Pérez", "juan@example.com");
+        current.setId(1L);
+        current.setVersion(3L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(userRepository.updateNameAndEmail(eq(1L), eq("Juan Renombrado"), eq("juan@example.com"),
+                any(LocalDateTime.class), eq(3L))).thenReturn(1);
+
+        // When
+        userService.updateUserWithRetry(1L, details -> details.setName("Juan Renombrado"));
+
+        // Then: las transacciones readOnly irían a una réplica
+        InOrder inOrder = inOrder(transactionManager, userRepository);
+        inOrder.verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        inOrder.verify(userRepository).findById(1L);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(userRepository).updateNameAndEmail(eq(1L), anyString(), anyString(), any(LocalDateTime.class), eq(3L));
     }
 
     @Test
@@ -165,7 +773,9 @@ class UserServiceTest {
     void shouldThrowExceptionWhenUpdatingNonExistentUser() {
         // Given
         User updatedDetails = new User("Juan Carlos Pérez", "juancarlos@example.com");
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.updateNameAndEmail(eq(999L), anyString(), anyString(), any(LocalDateTime.class), isNull()))
+                .thenReturn(0);
+        when(userRepository.findVersionById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -173,7 +783,7 @@ class UserServiceTest {
 
         // Corregir "id" por "ID" para que coincida con el mensaje real
         assertEquals("Usuario no encontrado con ID: 999", exception.getMessage());
-        verify(userRepository).findById(999L);
+        verify(userRepository, never()).findById(anyLong());
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -181,22 +791,24 @@ class UserServiceTest {
     @DisplayName("Should delete user successfully")
     void shouldDeleteUserSuccessfully() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        doNothing().when(userRepository).delete(testUser);
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
 
         // When
         assertDoesNotThrow(() -> userService.deleteUser(1L));
 
         // Then
-        verify(userRepository).findById(1L);
-        verify(userRepository).delete(testUser);
+        verify(userRepository).deleteUserById(1L);
+        verifyNoMoreInteractions(userRepository);
+        verify(userChangeEventRepository).save(argThat(event ->
+                event.getType() == UserChangeEvent.Type.DELETED && event.getUserId() == 1L));
+        verify(userTombstoneRepository).save(argThat(tombstone -> tombstone.getUserId() == 1L));
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent user")
     void shouldThrowExceptionWhenDeletingNonExistentUser() {
         // Given
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.deleteUserById(999L)).thenReturn(0);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -204,24 +816,174 @@ class UserServiceTest {
 
         // Corregir "id" por "ID" para que coincida con el mensaje real
         assertEquals("Usuario no encontrado con ID: 999", exception.getMessage());
-        verify(userRepository).findById(999L);
+        verify(userRepository, never()).findById(anyLong());
         verify(userRepository, never()).delete(any(User.class));
+        verifyNoInteractions(userChangeEventRepository, userTombstoneRepository);
+    }
+
+    @Test
+    @DisplayName("Should merge upserts and tombstones by (changedAt, id) and resume from the cursor")
+    void shouldMergeChangesAndResume() {
+        // Given
+        LocalDateTime base = LocalDateTime.now().minusHours(1);
+        UserDTO first = new UserDTO(3L, "Ana", "ana@example.com", base, base);
+        UserDTO third = new UserDTO(1L, "Luis", "luis@example.com", base, base.plusMinutes(2));
+        UserTombstone second = new UserTombstone(2L, base);
+        when(userRepository.findViewsChangedAfter(any(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first, third));
+        when(userTombstoneRepository.findDeletedAfter(any(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(List.of(second));
+
+        // When
+        UserChangesPageDTO page = userService.getChanges(null, 2);
+
+        // Then: a igual fecha la baja del ID 2 va antes que la modificación del ID 3
+        assertEquals(List.of(2L, 3L), page.getChanges().stream().map(UserChangeDTO::id).toList());
+        assertEquals(UserChangeDTO.Type.DELETE, page.getChanges().get(0).type());
+        assertTrue(page.isHasMore());
+
+        // Y la siguiente página continúa desde el último cambio entregado
+        userService.getChanges(page.getNextCursor(), 2);
+        verify(userRepository).findViewsChangedAfter(eq(base), eq(3L), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should advance the cursor to the settle limit when there are no more changes")
+    void shouldAdvanceCursorWithoutChanges() {
+        // Given
+        when(userRepository.findViewsChangedAfter(any(), anyLong(), any(), any(Pageable.class))).thenReturn(List.of());
+        when(userTombstoneRepository.findDeletedAfter(any(), anyLong(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        UserChangesPageDTO page = userService.getChanges(null, null);
+
+        // Then: el cursor queda justo antes de la ventana de asentamiento y no caduca
+        assertTrue(page.getChanges().isEmpty());
+        assertFalse(page.isHasMore());
+        UserCursor.ChangePosition next = UserCursor.decodeChange(page.getNextCursor());
+        assertTrue(next.at().isAfter(LocalDateTime.now().minusSeconds(10)));
+        assertEquals(Long.MAX_VALUE, next.id());
+        assertDoesNotThrow(() -> userService.getChanges(page.getNextCursor(), null));
+    }
+
+    @Test
+    @DisplayName("Should reject change cursors older than the tombstone retention")
+    void shouldRejectExpiredChangeCursor() {
+        // Given
+        String expired = UserCursor.encodeChange(
+                new UserCursor.ChangePosition(LocalDateTime.now().minusDays(31), 1L));
+
+        // When & Then
+        assertThrows(UserValidationException.class, () -> userService.getChanges(expired, null));
+        verifyNoInteractions(userTombstoneRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed change cursors")
+    void shouldRejectMalformedChangeCursor() {
+        assertThrows(UserValidationException.class, () -> userService.getChanges("no-es-un-cursor", null));
+        assertThrows(UserValidationException.class, () -> userService.getChanges(UserCursor.encode(5L), null));
     }
 
     @Test
     @DisplayName("Should search users by name")
     void shouldSearchUsersByName() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userRepository.findByNameContaining("Juan")).thenReturn(users);
+        userSearchIndex.index(testUser);
+        userSearchIndex.markReady();
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(testUser));
 
         // When
-        List<User> result = userService.searchUsersByName("Juan");
+        List<UserDTO> result = userService.searchUsersByName("Juan");
 
         // Then
         assertEquals(1, result.size());
-        assertEquals(testUser, result.get(0));
-        verify(userRepository).findByNameContaining("Juan");
+        assertEquals(UserDTO.from(testUser), result.get(0));
+        verify(userRepository, never()).findViewsByNameContaining(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should fall back to a bounded database search while the index is loading")
+    void shouldFallBackToDatabaseWhileIndexIsLoading() {
+        // Given
+        when(userRepository.findViewsByNameContaining(eq("Juan"), any(Pageable.class)))
+                .thenReturn(List.of(UserDTO.from(testUser)));
+
+        // When
+        List<UserDTO> result = userService.searchUsers("Juan", 500, false);
+
+        // Then
+        assertEquals(List.of(UserDTO.from(testUser)), result);
+        verify(userRepository).findViewsByNameContaining("Juan", PageRequest.of(0, 100));
+    }
+
+    @Test
+    @DisplayName("Should rank search results and keep the index in sync with writes")
+    void shouldRankSearchResultsAndTrackWrites() {
+        // Given
+        User prefix = new User("Ana García", "ana@example.com");
+        prefix.setId(2L);
+        User middle = new User("Mariana López", "mariana@example.com");
+        middle.setId(3L);
+        userSearchIndex.index(middle);
+        userSearchIndex.index(prefix);
+        userSearchIndex.markReady();
+        when(userRepository.findAllById(anyList())).thenReturn(List.of(prefix, middle));
+        when(userRepository.deleteUserById(2L)).thenReturn(1);
+
+        // When
+        List<UserDTO> ranked = userService.searchUsers("ana", null, false);
+        userService.deleteUser(2L);
+        List<Long> afterDelete = userSearchIndex.search("ana", 10, false);
+
+        // Then
+        assertEquals(List.of(UserDTO.from(prefix), UserDTO.from(middle)), ranked);
+        assertEquals(List.of(3L), afterDelete);
+    }
+
+    @Test
+    @DisplayName("Should load the search index and email filter page by page")
+    void shouldLoadIndexes() {
+        // Given
+        User second = new User("Ana García", "ana@example.com");
+        second.setId(2L);
+        when(userRepository.findViewsAfterId(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(UserDTO.from(testUser), UserDTO.from(second)));
+        when(userRepository.findViewsAfterId(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        userService.loadIndexes();
+
+        // Then
+        assertTrue(userSearchIndex.isReady());
+        assertEquals(2, userSearchIndex.size());
+        assertEquals(List.of(1L), userSearchIndex.search("perez", 10, false));
+        assertTrue(emailFilter.isReady());
+        assertTrue(emailFilter.mightContain("ana@example.com"));
+        assertEquals(OptionalLong.of(2L), userCounter.get());
+    }
+
+    @Test
+    @DisplayName("Should catch up the search index with writes from other instances")
+    void shouldSyncSearchIndexFromChangeFeed() {
+        // Given: índice cargado con el usuario 1; otra instancia crea el 3 y borra el 1
+        when(userRepository.findViewsAfterId(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(UserDTO.from(testUser)));
+        userService.loadIndexes();
+        LocalDateTime now = LocalDateTime.now();
+        when(userRepository.findViewsChangedAfter(any(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(List.of(new UserDTO(3L, "Ana García", "ana@example.com", now, now)));
+        when(userTombstoneRepository.findDeletedAfter(any(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(List.of(new UserTombstone(1L, now.plusSeconds(1))));
+
+        // When
+        userService.syncSearchIndex();
+
+        // Then
+        assertEquals(List.of(), userSearchIndex.search("perez", 10, false));
+        assertEquals(List.of(3L), userSearchIndex.search("garcia", 10, false));
+        assertTrue(emailFilter.mightContain("ana@example.com"));
     }
 
     @Test
@@ -230,8 +992,8 @@ class UserServiceTest {
         // Given - Primero mockear que el usuario existe
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
-        String expectedUrl = "http://order-service/api/orders/user/1";
-        when(restTemplate.getForObject(expectedUrl, OrderDTO[].class)).thenReturn(testOrders);
+        String expectedUrl = "http://order-service/api/orders/user/{userId}";
+        when(restTemplate.getForObject(expectedUrl, OrderDTO[].class, 1L)).thenReturn(testOrders);
 
         // When
         List<OrderDTO> result = userService.getUserOrders(1L);
@@ -241,7 +1003,7 @@ class UserServiceTest {
         assertEquals(testOrders[0].getId(), result.get(0).getId());
         assertEquals(testOrders[1].getId(), result.get(1).getId());
         verify(userRepository).findById(1L); // Verificar que se buscó el usuario
-        verify(restTemplate).getForObject(expectedUrl, OrderDTO[].class);
+        verify(restTemplate).getForObject(expectedUrl, OrderDTO[].class, 1L);
     }
 
     @Test
@@ -250,8 +1012,8 @@ class UserServiceTest {
         // Given - Primero mockear que el usuario existe
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
-        String expectedUrl = "http://order-service/api/orders/user/1";
-        when(restTemplate.getForObject(expectedUrl, OrderDTO[].class)).thenReturn(null);
+        String expectedUrl = "http://order-service/api/orders/user/{userId}";
+        when(restTemplate.getForObject(expectedUrl, OrderDTO[].class, 1L)).thenReturn(null);
 
         // When
         List<OrderDTO> result = userService.getUserOrders(1L);
@@ -259,7 +1021,7 @@ class UserServiceTest {
         // Then
         assertTrue(result.isEmpty());
         verify(userRepository).findById(1L); // Verificar que se buscó el usuario
-        verify(restTemplate).getForObject(expectedUrl, OrderDTO[].class);
+        verify(restTemplate).getForObject(expectedUrl, OrderDTO[].class, 1L);
     }
 
     @Test
@@ -268,8 +1030,8 @@ class UserServiceTest {
         // Given - Primero mockear que el usuario existe
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
-        String expectedUrl = "http://order-service/api/orders/user/1";
-        when(restTemplate.getForObject(expectedUrl, OrderDTO[].class))
+        String expectedUrl = "http://order-service/api/orders/user/{userId}";
+        when(restTemplate.getForObject(expectedUrl, OrderDTO[].class, 1L))
                 .thenThrow(new RestClientException("Service unavailable"));
 
         // When & Then
@@ -280,7 +1042,7 @@ class UserServiceTest {
         assertTrue(exception.getMessage().contains("Error al obtener órdenes del usuario") ||
                 exception.getMessage().contains("Service unavailable"));
         verify(userRepository).findById(1L); // Verificar que se buscó el usuario
-        verify(restTemplate).getForObject(expectedUrl, OrderDTO[].class);
+        verify(restTemplate).getForObject(expectedUrl, OrderDTO[].class, 1L);
     }
 
     @Test
@@ -296,4 +1058,80 @@ class UserServiceTest {
         assertEquals(5L, result);
         verify(userRepository).countAllUsers();
     }
+
+    @Test
+    @DisplayName("Should keep the user count in memory across creates and deletes")
+    void shouldMaintainUserCountWithoutCountQueries() {
+        // Given
+        userCounter.reconcile(10L);
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
+
+        // When
+        userService.createUser(testUser);
+        userService.createUser(testUser);
+        userService.deleteUser(1L);
+        UserCountDTO count = userService.getUserCount("exact");
+
+        // Then
+        assertEquals(11L, count.getTotal());
+        assertEquals(UserCountDTO.Mode.EXACT, count.getMode());
+        verify(userRepository, never()).countAllUsers();
+    }
+
+    @Test
+    @DisplayName("Should return the table estimate in approximate mode and fall back to exact")
+    void shouldReturnApproximateCount() {
+        // Given
+        userCounter.reconcile(3L);
+        when(userStatsRepository.estimateUserCount())
+                .thenReturn(OptionalLong.of(1_000_000L))
+                .thenReturn(OptionalLong.empty());
+
+        // When
+        UserCountDTO approximate = userService.getUserCount("APPROXIMATE");
+        UserCountDTO fallback = userService.getUserCount("approximate");
+
+        // Then
+        assertEquals(1_000_000L, approximate.getTotal());
+        assertEquals(UserCountDTO.Mode.APPROXIMATE, approximate.getMode());
+        assertEquals(3L, fallback.getTotal());
+        assertEquals(UserCountDTO.Mode.EXACT, fallback.getMode());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown count modes")
+    void shouldRejectUnknownCountMode() {
+        // When & Then
+        assertThrows(UserValidationException.class, () -> userService.getUserCount("fast"));
+    }
+
+    private DataIntegrityViolationException duplicateKey() {
+        return new DataIntegrityViolationException("duplicate",
+                new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062));
+    }
+
+    private UserIdEmail idEmail(Long id, String email) {
+        return new UserIdEmail() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    private User userWithId(Long id) {
+        User user = new User("Usuario " + id, "user" + id + "@example.com");
+        user.setId(id);
+        return user;
+    }
+
+    private UserDTO viewWithId(Long id) {
+        return UserDTO.from(userWithId(id));
+    }
 }
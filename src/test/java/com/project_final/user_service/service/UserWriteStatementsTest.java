@@ -0,0 +1,169 @@
+package com.project_final.user_service.service;
+
+import com.project_final.user_service.cache.EmailBloomFilter;
+import com.project_final.user_service.cache.OrderListCache;
+import com.project_final.user_service.cache.UserCache;
+import com.project_final.user_service.cache.UserCounter;
+import com.project_final.user_service.client.OrderServiceClient;
+import com.project_final.user_service.exceptions.UserAlreadyExistsException;
+import com.project_final.user_service.exceptions.UserNotFoundException;
+import com.project_final.user_service.exceptions.UserPreconditionFailedException;
+import com.project_final.user_service.model.User;
+import com.project_final.user_service.model.UserChangeEvent;
+import com.project_final.user_service.repositories.UserBatchRepository;
+import com.project_final.user_service.repositories.UserChangeEventRepository;
+import com.project_final.user_service.repositories.UserRepository;
+import com.project_final.user_service.repositories.UserStatsRepository;
+import com.project_final.user_service.repositories.UserTombstoneRepository;
+import com.project_final.user_service.search.UserSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Presupuesto de sentencias SQL de las escrituras: cuenta las sentencias
+ * preparadas por Hibernate para que no vuelvan las lecturas previas. Con el
+ * relay del outbox activo, cada escritura correcta incluye el INSERT de su
+ * evento en el outbox, y cada baja el de su tombstone.
+ * Sin transacción de test, cada llamada se comporta como en producción.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "user.outbox.relay.enabled=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserService.class, UserCache.class, UserSearchIndex.class, EmailBloomFilter.class, UserCounter.class})
+@DisplayName("User Write Statement Count Tests")
+class UserWriteStatementsTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeEventRepository userChangeEventRepository;
+
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private OrderServiceClient orderServiceClient;
+
+    @MockBean
+    private OrderListCache orderListCache;
+
+    @MockBean
+    private UserBatchRepository userBatchRepository;
+
+    @MockBean
+    private UserStatsRepository userStatsRepository;
+
+    private Statistics statistics;
+    private User existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = userRepository.save(new User("Juan Pérez", "juan@example.com"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        userChangeEventRepository.deleteAllInBatch();
+        userTombstoneRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should create a user with one INSERT plus its outbox event")
+    void shouldCreateWithTwoStatements() {
+        // When
+        User created = userService.createUser(new User("María López", "maria@example.com"));
+
+        // Then
+        assertEquals(2, statistics.getPrepareStatementCount());
+        UserChangeEvent event = userChangeEventRepository.findAll().get(0);
+        assertEquals(UserChangeEvent.Type.CREATED, event.getType());
+        assertEquals(created.getId(), event.getUserId());
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate email with a single INSERT")
+    void shouldRejectDuplicateWithOneStatement() {
+        // When & Then
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.createUser(new User("Otro Juan", "juan@example.com")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, userChangeEventRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should update a user with one UPDATE, one read of the new state and its outbox event")
+    void shouldUpdateWithThreeStatements() {
+        // When
+        User updated = userService.updateUser(existing.getId(), new User("Juan Carlos", "juancarlos@example.com"), 0L);
+
+        // Then
+        assertEquals("Juan Carlos", updated.getName());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1L, userChangeEventRepository.findAll().get(0).getVersion());
+    }
+
+    @Test
+    @DisplayName("Should reject a stale version with the UPDATE and one version read")
+    void shouldRejectStaleVersionWithTwoStatements() {
+        // When & Then
+        assertThrows(UserPreconditionFailedException.class,
+                () -> userService.updateUser(existing.getId(), new User("Juan Carlos", "juan@example.com"), 5L));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, userChangeEventRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate email on update with a single UPDATE")
+    void shouldRejectDuplicateEmailOnUpdateWithOneStatement() {
+        // Given
+        userRepository.save(new User("María López", "maria@example.com"));
+        statistics.clear();
+
+        // When & Then
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.updateUser(existing.getId(), new User("Juan Pérez", "maria@example.com")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should delete a user with one DELETE plus its outbox event and tombstone, and a missing one with a single DELETE")
+    void shouldDeleteWithThreeStatements() {
+        // When
+        userService.deleteUser(existing.getId());
+        long afterDelete = statistics.getPrepareStatementCount();
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(existing.getId()));
+
+        // Then
+        assertEquals(3, afterDelete);
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, userChangeEventRepository.count());
+        assertTrue(userTombstoneRepository.existsById(existing.getId()));
+    }
+}